@@ -0,0 +1,114 @@
+package com.ceihtel.chivalry.benchmarks;
+
+import com.ceihtel.chivalry.cache.SoldierCache;
+import com.ceihtel.chivalry.config.SoldierProperties;
+import com.ceihtel.chivalry.controllers.ChivalryControllerAdvice;
+import com.ceihtel.chivalry.controllers.SoldierController;
+import com.ceihtel.chivalry.entities.Soldier;
+import com.ceihtel.chivalry.events.SoldierEventBus;
+import com.ceihtel.chivalry.exceptions.SoldierAlreadyExistsException;
+import com.ceihtel.chivalry.exceptions.SoldierNotFoundException;
+import com.ceihtel.chivalry.loaders.SoldierInsertBatcher;
+import com.ceihtel.chivalry.loaders.SoldierNameBatcher;
+import com.ceihtel.chivalry.mappers.SoldierMapperImpl;
+import com.ceihtel.chivalry.requests.CreateSoldierDTO;
+import com.ceihtel.chivalry.services.SoldierIngestService;
+import com.ceihtel.chivalry.stats.WeaponStatistics;
+import com.ceihtel.chivalry.suggest.SoldierNameIndex;
+import org.openjdk.jmh.annotations.*;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Validation;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full {@link SoldierController} pipelines against an in-memory repository, run with {@code -prof gc} for allocation rates
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SoldierControllerBenchmark {
+    /**
+     * Whether lookups by name are served from the cache, or go down to the repository every time
+     */
+    @Param({"false", "true"})
+    private boolean cached;
+
+    private SoldierController soldierController;
+    private SoldierNameBatcher soldierNameBatcher;
+    private SoldierInsertBatcher soldierInsertBatcher;
+    private ChivalryControllerAdvice controllerAdvice;
+    private CreateSoldierDTO newSoldier;
+    private CreateSoldierDTO existingSoldier;
+
+    @Setup
+    public void setup() {
+        var roger = new Soldier();
+        roger.setId(UUID.randomUUID().toString());
+        roger.setName("Roger");
+        roger.setWeapon("Crossbow");
+        var soldierRepository = StubSoldierRepository.of(Map.of(roger.getName(), roger));
+
+        var soldierProperties = new SoldierProperties();
+        soldierProperties.getCache().setEnabled(cached);
+        var soldierMapper = new SoldierMapperImpl();
+        // Batches of one are sent right away, lookups do not wait for a window to close
+        soldierNameBatcher = new SoldierNameBatcher(soldierRepository, Duration.ofMillis(1), 1, 1000, 4, Duration.ofSeconds(5));
+        soldierInsertBatcher = new SoldierInsertBatcher(soldierRepository, Duration.ofMillis(1), 100, 1000, 4, Duration.ofSeconds(5));
+        var soldierCache = new SoldierCache(soldierNameBatcher, soldierProperties);
+        var validator = Validation.buildDefaultValidatorFactory().getValidator();
+        var soldierIngestService = new SoldierIngestService(soldierRepository, soldierMapper, soldierProperties, validator, soldierCache);
+        var weaponStatistics = new WeaponStatistics(soldierRepository, soldierProperties);
+        var soldierEventBus = new SoldierEventBus(soldierRepository, soldierProperties);
+        var soldierNameIndex = new SoldierNameIndex(soldierRepository, soldierEventBus, soldierProperties);
+
+        soldierController = new SoldierController(soldierRepository, soldierMapper, soldierProperties, soldierIngestService,
+                soldierCache, soldierNameBatcher, soldierInsertBatcher, weaponStatistics, soldierEventBus, soldierNameIndex);
+        controllerAdvice = new ChivalryControllerAdvice();
+
+        newSoldier = new CreateSoldierDTO();
+        newSoldier.setName("Tancrède");
+        newSoldier.setWeapon("Polearm");
+        existingSoldier = new CreateSoldierDTO();
+        existingSoldier.setName("Roger");
+        existingSoldier.setWeapon("Crossbow");
+    }
+
+    @TearDown
+    public void tearDown() {
+        soldierNameBatcher.close();
+        soldierInsertBatcher.close();
+    }
+
+    @Benchmark
+    public Object getByName_found() {
+        return soldierController.getByName("Roger").block();
+    }
+
+    @Benchmark
+    public Object getByName_notFound() {
+        return soldierController.getByName("Géraud")
+                .cast(Object.class)
+                .onErrorResume(SoldierNotFoundException.class, e -> Mono.just(controllerAdvice.onNotFoundError(e)))
+                .block();
+    }
+
+    @Benchmark
+    public Object createWithName_created() {
+        return soldierController.createWithName(newSoldier).block();
+    }
+
+    @Benchmark
+    public Object createWithName_conflict() {
+        return soldierController.createWithName(existingSoldier)
+                .cast(Object.class)
+                .onErrorResume(SoldierAlreadyExistsException.class, e -> Mono.just(controllerAdvice.onConflictError(e)))
+                .block();
+    }
+}
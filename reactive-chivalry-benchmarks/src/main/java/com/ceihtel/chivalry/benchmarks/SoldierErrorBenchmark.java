@@ -0,0 +1,66 @@
+package com.ceihtel.chivalry.benchmarks;
+
+import com.ceihtel.chivalry.controllers.ChivalryControllerAdvice;
+import com.ceihtel.chivalry.entities.Soldier;
+import com.ceihtel.chivalry.exceptions.SoldierNotFoundException;
+import org.openjdk.jmh.annotations.*;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup error path as the controller builds it, {@code lazy_*}, against an eager error with a stack trace, {@code eager_*}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SoldierErrorBenchmark {
+    private static final String MISSING_SOLDIER = "Could not find a soldier called '%s'";
+
+    private final ChivalryControllerAdvice controllerAdvice = new ChivalryControllerAdvice();
+    private String name;
+    private Mono<Soldier> found;
+    private Mono<Soldier> missing;
+
+    @Setup
+    public void setup() {
+        name = "Roger";
+        var roger = new Soldier();
+        roger.setName(name);
+        roger.setWeapon("Crossbow");
+        found = Mono.just(roger);
+        missing = Mono.empty();
+    }
+
+    @Benchmark
+    public Object eager_found() {
+        return found.switchIfEmpty(Mono.error(new RuntimeException(String.format(MISSING_SOLDIER, name))))
+                .block();
+    }
+
+    @Benchmark
+    public Object lazy_found() {
+        return found.switchIfEmpty(Mono.error(() -> new SoldierNotFoundException(name)))
+                .block();
+    }
+
+    @Benchmark
+    public Object eager_notFound() {
+        return missing.switchIfEmpty(Mono.error(new RuntimeException(String.format(MISSING_SOLDIER, name))))
+                .cast(Object.class)
+                .onErrorResume(e -> Mono.just(Map.of("error", e.getMessage())))
+                .block();
+    }
+
+    @Benchmark
+    public Object lazy_notFound() {
+        return missing.switchIfEmpty(Mono.error(() -> new SoldierNotFoundException(name)))
+                .cast(Object.class)
+                .onErrorResume(SoldierNotFoundException.class, e -> Mono.just(controllerAdvice.onNotFoundError(e)))
+                .block();
+    }
+}
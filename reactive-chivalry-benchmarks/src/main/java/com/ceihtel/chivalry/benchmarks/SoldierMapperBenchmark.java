@@ -0,0 +1,32 @@
+package com.ceihtel.chivalry.benchmarks;
+
+import com.ceihtel.chivalry.entities.Soldier;
+import com.ceihtel.chivalry.mappers.SoldierMapper;
+import com.ceihtel.chivalry.mappers.SoldierMapperImpl;
+import com.ceihtel.chivalry.requests.CreateSoldierDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SoldierMapperBenchmark {
+    private final SoldierMapper soldierMapper = new SoldierMapperImpl();
+    private CreateSoldierDTO createSoldierDTO;
+
+    @Setup
+    public void setup() {
+        createSoldierDTO = new CreateSoldierDTO();
+        createSoldierDTO.setName("Roger");
+        createSoldierDTO.setWeapon("Crossbow");
+    }
+
+    @Benchmark
+    public Soldier toEntity() {
+        return soldierMapper.toEntity(createSoldierDTO);
+    }
+}
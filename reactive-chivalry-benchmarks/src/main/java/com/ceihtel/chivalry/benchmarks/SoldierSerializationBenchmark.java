@@ -0,0 +1,85 @@
+package com.ceihtel.chivalry.benchmarks;
+
+import com.ceihtel.chivalry.entities.Soldier;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of writing soldiers as the WebFlux JSON codec does, a single one and a whole army
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SoldierSerializationBenchmark {
+    private static final ResolvableType SOLDIER_TYPE = ResolvableType.forClass(Soldier.class);
+
+    @Param({"10", "1000"})
+    private int armySize;
+
+    private ObjectMapper objectMapper;
+    private Jackson2JsonEncoder encoder;
+    private Soldier soldier;
+    private List<Soldier> army;
+
+    @Setup
+    public void setup() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        encoder = new Jackson2JsonEncoder(objectMapper);
+        soldier = getSoldier(0);
+        army = new ArrayList<>(armySize);
+        for (int i = 0; i < armySize; i++) {
+            army.add(getSoldier(i));
+        }
+    }
+
+    private static Soldier getSoldier(int index) {
+        var soldier = new Soldier();
+        soldier.setId(UUID.randomUUID().toString());
+        soldier.setName("Roger " + index);
+        soldier.setWeapon("Crossbow");
+        return soldier;
+    }
+
+    @Benchmark
+    public byte[] writeSoldier() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(soldier);
+    }
+
+    @Benchmark
+    public int encodeArmyAsJson() {
+        return encode(MediaType.APPLICATION_JSON);
+    }
+
+    @Benchmark
+    public int encodeArmyAsNdjson() {
+        return encode(MediaType.APPLICATION_NDJSON);
+    }
+
+    private int encode(MediaType mediaType) {
+        return encoder.encode(Flux.fromIterable(army), DefaultDataBufferFactory.sharedInstance, SOLDIER_TYPE, mediaType, Map.of())
+                .map(buffer -> {
+                    var size = buffer.readableByteCount();
+                    DataBufferUtils.release(buffer);
+                    return size;
+                })
+                .reduce(0, Integer::sum)
+                .block();
+    }
+}
@@ -0,0 +1,64 @@
+package com.ceihtel.chivalry.benchmarks;
+
+import com.ceihtel.chivalry.config.SoldierProperties;
+import com.ceihtel.chivalry.entities.Soldier;
+import com.ceihtel.chivalry.events.SoldierEventBus;
+import com.ceihtel.chivalry.generators.SoldierGenerator;
+import com.ceihtel.chivalry.suggest.SoldierNameIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Suggestions from an army of a million soldiers, with and without recent changes to merge with the sorted names
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SoldierSuggestBenchmark {
+    @Param({"1000000"})
+    private int size;
+
+    @Param({"0", "1000"})
+    private int changes;
+
+    @Param({"Ro", "Roger"})
+    private String prefix;
+
+    private SoldierNameIndex soldierNameIndex;
+
+    @Setup
+    public void setup() {
+        var generator = new SoldierGenerator(new SplittableRandom(42));
+        var soldiers = new HashMap<String, Soldier>();
+        while (soldiers.size() < size) {
+            var soldier = generator.next();
+            soldiers.put(soldier.getName(), soldier);
+        }
+        var soldierRepository = StubSoldierRepository.of(soldiers);
+        var soldierProperties = new SoldierProperties();
+        soldierNameIndex = new SoldierNameIndex(soldierRepository, new SoldierEventBus(soldierRepository, soldierProperties), soldierProperties);
+        soldierNameIndex.rebuild().block();
+
+        // Changes since the last compaction, half of them deletions
+        var names = soldiers.keySet().iterator();
+        for (int i = 0; i < changes; i++) {
+            if (i % 2 == 0) {
+                soldierNameIndex.added(generator.next().getName());
+            } else {
+                soldierNameIndex.removed(names.next());
+            }
+        }
+    }
+
+    @Benchmark
+    public List<String> suggest() {
+        return soldierNameIndex.suggest(prefix, 10);
+    }
+}
@@ -0,0 +1,100 @@
+package com.ceihtel.chivalry.benchmarks;
+
+import com.ceihtel.chivalry.ChivalryApplication;
+import com.ceihtel.chivalry.entities.Soldier;
+import com.ceihtel.chivalry.requests.CreateSoldierDTO;
+import com.ceihtel.chivalry.responses.SoldierCreationDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups and whole army reads over HTTP with JSON and over RSocket with CBOR
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SoldierTransportBenchmark {
+    @Param({"1000"})
+    private int armySize;
+
+    private ConfigurableApplicationContext context;
+    private WebClient webClient;
+    private RSocketRequester requester;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(ChivalryApplication.class)
+                .profiles("in-memory")
+                .properties("server.port=0", "spring.rsocket.server.port=0", "chivalry.soldiers.limiter.enabled=false",
+                        "logging.level.root=WARN")
+                .run();
+
+        // Ports picked at random, as published by Spring Boot once the servers are up
+        var environment = context.getEnvironment();
+        var httpPort = environment.getRequiredProperty("local.server.port", Integer.class);
+        var rsocketPort = environment.getRequiredProperty("local.rsocket.server.port", Integer.class);
+        webClient = context.getBean(WebClient.Builder.class).baseUrl("http://localhost:" + httpPort).build();
+        requester = context.getBean(RSocketRequester.Builder.class).tcp("localhost", rsocketPort);
+
+        requester.route("soldiers.bulk")
+                .data(Flux.range(0, armySize).map(SoldierTransportBenchmark::getCreateSoldierDTO))
+                .retrieveFlux(SoldierCreationDTO.class)
+                .blockLast();
+    }
+
+    private static CreateSoldierDTO getCreateSoldierDTO(int index) {
+        var createSoldierDTO = new CreateSoldierDTO();
+        createSoldierDTO.setName("Roger " + index);
+        createSoldierDTO.setWeapon("Crossbow");
+        return createSoldierDTO;
+    }
+
+    @TearDown
+    public void tearDown() {
+        requester.dispose();
+        context.close();
+    }
+
+    @Benchmark
+    public Soldier getByName_http() {
+        return webClient.get().uri("/soldiers/{name}", "Roger 0")
+                .retrieve()
+                .bodyToMono(Soldier.class)
+                .block();
+    }
+
+    @Benchmark
+    public Soldier getByName_rsocket() {
+        return requester.route("soldiers.get.{name}", "Roger 0")
+                .retrieveMono(Soldier.class)
+                .block();
+    }
+
+    @Benchmark
+    public Long streamAll_http() {
+        return webClient.get().uri("/soldiers")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .retrieve()
+                .bodyToFlux(Soldier.class)
+                .count()
+                .block();
+    }
+
+    @Benchmark
+    public Long streamAll_rsocket() {
+        return requester.route("soldiers.all")
+                .retrieveFlux(Soldier.class)
+                .count()
+                .block();
+    }
+}
@@ -0,0 +1,39 @@
+package com.ceihtel.chivalry.benchmarks;
+
+import com.ceihtel.chivalry.entities.Soldier;
+import com.ceihtel.chivalry.repositories.SoldierRepository;
+import org.springframework.dao.DuplicateKeyException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Read-only {@link SoldierRepository} answering from a fixed map of soldiers
+ */
+final class StubSoldierRepository {
+    private StubSoldierRepository() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static SoldierRepository of(Map<String, Soldier> soldiers) {
+        return (SoldierRepository) Proxy.newProxyInstance(SoldierRepository.class.getClassLoader(), new Class<?>[]{SoldierRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findByName" -> Mono.justOrEmpty(soldiers.get((String) args[0]));
+                    case "findByNameIn" -> Flux.fromIterable((Collection<String>) args[0]).mapNotNull(soldiers::get);
+                    case "findAll", "findAllProjected" -> Flux.fromIterable(soldiers.values());
+                    case "insert", "save" -> {
+                        var soldier = (Soldier) args[0];
+                        yield soldiers.containsKey(soldier.getName())
+                                ? Mono.error(new DuplicateKeyException(soldier.getName()))
+                                : Mono.just(soldier);
+                    }
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> StubSoldierRepository.class.getSimpleName();
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
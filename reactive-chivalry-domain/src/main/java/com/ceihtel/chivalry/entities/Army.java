@@ -0,0 +1,21 @@
+package com.ceihtel.chivalry.entities;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Soldiers point to their army through {@link Soldier#getArmyId()}, an army does not hold the list of its members
+ */
+@Data
+@Document
+public class Army {
+    @Id
+    private String id;
+
+    private String name;
+
+    @Version
+    private Long version;
+}
@@ -2,8 +2,11 @@ package com.ceihtel.chivalry.entities;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
 
 @Data
 @Document
@@ -11,8 +14,23 @@ public class Soldier {
     @Id
     private String id;
 
-    @Indexed(unique = true)
+    /**
+     * Unique when set, through the index created by {@code SoldierIndexes}
+     */
     private String name;
 
     private String weapon;
+
+    /**
+     * Army the soldier serves in, if any, stored as an ObjectId
+     */
+    @Indexed(sparse = true)
+    @Field(targetType = FieldType.OBJECT_ID)
+    private String armyId;
+
+    /**
+     * Incremented on every write, so that updates based on an outdated copy of the soldier can be told apart
+     */
+    @Version
+    private Long version;
 }
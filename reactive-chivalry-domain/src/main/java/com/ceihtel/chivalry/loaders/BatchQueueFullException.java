@@ -0,0 +1,11 @@
+package com.ceihtel.chivalry.loaders;
+
+/**
+ * Thrown when too many requests are already waiting to be batched for another one to be queued
+ */
+public class BatchQueueFullException extends RuntimeException {
+    public BatchQueueFullException(int maxPending) {
+        // Raised under overload, the stack trace would only add to it
+        super(maxPending + " requests are already waiting to be batched", null, false, false);
+    }
+}
@@ -0,0 +1,99 @@
+package com.ceihtel.chivalry.loaders;
+
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Groups the requests made within the same window, up to a maximum batch size, and hands each batch to a single call
+ */
+class Batcher<T, R> implements AutoCloseable {
+    private final Function<List<Pending<T, R>>, Mono<Void>> execute;
+    private final int maxPending;
+    private final Duration timeout;
+    private final AtomicInteger pending = new AtomicInteger();
+    private FluxSink<Pending<T, R>> requests;
+    private volatile boolean closed;
+
+    Batcher(Duration window, int maxBatchSize, int maxPending, int concurrency, Duration timeout,
+            Function<List<Pending<T, R>>, Mono<Void>> execute) {
+        this.execute = execute;
+        this.maxPending = maxPending;
+        this.timeout = timeout;
+        Flux.<Pending<T, R>>create(sink -> requests = sink)
+                .bufferTimeout(maxBatchSize, window)
+                // bufferTimeout fails when a batch is due and nothing requested it, batches wait here for a free slot
+                .onBackpressureBuffer(maxPending, this::reject, BufferOverflowStrategy.DROP_LATEST)
+                .flatMap(this::execute, concurrency)
+                .subscribe();
+    }
+
+    Mono<R> submit(T request) {
+        return Mono.defer(() -> {
+            if (closed) {
+                return Mono.error(new IllegalStateException("No more requests are batched, the application is shutting down"));
+            }
+            if (pending.incrementAndGet() > maxPending) {
+                pending.decrementAndGet();
+                return Mono.error(new BatchQueueFullException(maxPending));
+            }
+            var result = Sinks.<R>one();
+            requests.next(new Pending<>(request, result));
+            return result.asMono().timeout(timeout);
+        });
+    }
+
+    int pending() {
+        return pending.get();
+    }
+
+    /**
+     * Executes the requests still waiting, without accepting new ones
+     */
+    @Override
+    public void close() {
+        closed = true;
+        requests.complete();
+    }
+
+    private Mono<Void> execute(List<Pending<T, R>> batch) {
+        // A failed batch fails its own requests only, the following batches still go through
+        return Mono.defer(() -> execute.apply(batch))
+                .timeout(timeout)
+                .onErrorResume(e -> {
+                    fail(batch, e);
+                    return Mono.empty();
+                })
+                .doFinally(__ -> {
+                    // Requests the batch left unanswered have no result
+                    batch.forEach(request -> request.complete(null));
+                    pending.addAndGet(-batch.size());
+                });
+    }
+
+    private void reject(List<Pending<T, R>> batch) {
+        fail(batch, new BatchQueueFullException(maxPending));
+        pending.addAndGet(-batch.size());
+    }
+
+    private static <T, R> void fail(List<Pending<T, R>> batch, Throwable e) {
+        batch.forEach(request -> request.result().tryEmitError(e));
+    }
+
+    record Pending<T, R>(T request, Sinks.One<R> result) {
+        void complete(R value) {
+            if (value == null) {
+                result.tryEmitEmpty();
+            } else {
+                result.tryEmitValue(value);
+            }
+        }
+    }
+}
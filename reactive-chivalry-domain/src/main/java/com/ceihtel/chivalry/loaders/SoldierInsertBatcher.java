@@ -0,0 +1,73 @@
+package com.ceihtel.chivalry.loaders;
+
+import com.ceihtel.chivalry.entities.Soldier;
+import com.ceihtel.chivalry.metrics.DeferredMeterBinder;
+import com.ceihtel.chivalry.repositories.SoldierRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.DuplicateKeyException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Coalesces inserts into a single unordered {@code insertMany}, rejecting them beyond a bound on those waiting
+ */
+public class SoldierInsertBatcher implements DeferredMeterBinder, AutoCloseable {
+    private final SoldierRepository soldierRepository;
+    private final Batcher<Soldier, Soldier> batcher;
+    private volatile DistributionSummary batchSizes;
+
+    public SoldierInsertBatcher(SoldierRepository soldierRepository, Duration linger, int maxBatchSize, int maxPending,
+                                int concurrency, Duration timeout) {
+        this.soldierRepository = soldierRepository;
+        this.batcher = new Batcher<>(linger, maxBatchSize, maxPending, concurrency, timeout, this::insert);
+    }
+
+    public Mono<Soldier> insert(Soldier soldier) {
+        return batcher.submit(soldier);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        batchSizes = DistributionSummary.builder("chivalry.soldiers.insert.batch.size")
+                .description("Number of soldiers written by a single insert")
+                .register(registry);
+        Gauge.builder("chivalry.soldiers.insert.pending", batcher, Batcher::pending)
+                .description("Number of soldiers waiting to be written")
+                .register(registry);
+    }
+
+    /**
+     * Writes the soldiers still waiting, without accepting new ones
+     */
+    @Override
+    public void close() {
+        batcher.close();
+    }
+
+    private Mono<Void> insert(List<Batcher.Pending<Soldier, Soldier>> batch) {
+        if (batchSizes != null) {
+            batchSizes.record(batch.size());
+        }
+
+        var soldiers = new ArrayList<Soldier>(batch.size());
+        var results = new IdentityHashMap<Soldier, Batcher.Pending<Soldier, Soldier>>(batch.size());
+        for (var pendingInsert : batch) {
+            soldiers.add(pendingInsert.request());
+            results.put(pendingInsert.request(), pendingInsert);
+        }
+
+        return soldierRepository.insertUnordered(soldiers)
+                .doOnNext(result -> {
+                    result.inserted().forEach(soldier -> results.get(soldier).complete(soldier));
+                    result.duplicates().forEach(soldier -> results.get(soldier).result().tryEmitError(
+                            new DuplicateKeyException("Soldier '" + soldier.getName() + "' already exists")));
+                })
+                .then();
+    }
+}
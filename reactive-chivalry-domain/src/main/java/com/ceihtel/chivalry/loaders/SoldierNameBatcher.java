@@ -0,0 +1,71 @@
+package com.ceihtel.chivalry.loaders;
+
+import com.ceihtel.chivalry.entities.Soldier;
+import com.ceihtel.chivalry.metrics.DeferredMeterBinder;
+import com.ceihtel.chivalry.repositories.SoldierRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Coalesces lookups by name into a single {@code name: {$in: [...]}} query
+ */
+public class SoldierNameBatcher implements DeferredMeterBinder, AutoCloseable {
+    private final SoldierRepository soldierRepository;
+    private final Batcher<String, Soldier> batcher;
+    private volatile DistributionSummary batchSizes;
+
+    public SoldierNameBatcher(SoldierRepository soldierRepository, Duration window, int maxBatchSize, int maxPending,
+                              int concurrency, Duration timeout) {
+        this.soldierRepository = soldierRepository;
+        this.batcher = new Batcher<>(window, maxBatchSize, maxPending, concurrency, timeout, this::lookup);
+    }
+
+    public Mono<Soldier> load(String name) {
+        return batcher.submit(name);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        batchSizes = DistributionSummary.builder("chivalry.soldiers.lookup.batch.size")
+                .description("Number of lookups by name served by a single query")
+                .register(registry);
+    }
+
+    @Override
+    public void close() {
+        batcher.close();
+    }
+
+    private Mono<Void> lookup(List<Batcher.Pending<String, Soldier>> batch) {
+        if (batchSizes != null) {
+            batchSizes.record(batch.size());
+        }
+
+        return find(batch)
+                .doOnNext(soldiers -> batch.forEach(pending -> pending.complete(soldiers.get(pending.request()))))
+                .then();
+    }
+
+    private Mono<Map<String, Soldier>> find(List<Batcher.Pending<String, Soldier>> batch) {
+        if (batch.size() == 1) {
+            // Nothing to coalesce, a plain equality match will do
+            var name = batch.get(0).request();
+            return soldierRepository.findByName(name)
+                    .map(soldier -> Map.of(name, soldier))
+                    .defaultIfEmpty(Map.of());
+        }
+
+        var names = batch.stream()
+                .map(Batcher.Pending::request)
+                .collect(Collectors.toSet());
+        return soldierRepository.findByNameIn(names)
+                .collectMap(Soldier::getName, Function.identity());
+    }
+}
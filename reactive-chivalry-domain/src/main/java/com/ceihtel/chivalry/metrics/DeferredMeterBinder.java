@@ -0,0 +1,12 @@
+package com.ceihtel.chivalry.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Meters bound once every singleton is created, for beans reaching the repository. Spring Boot binds a
+ * {@link io.micrometer.core.instrument.binder.MeterBinder} along with the registry, which the MongoDB client needs.
+ */
+@FunctionalInterface
+public interface DeferredMeterBinder {
+    void bindTo(MeterRegistry registry);
+}
@@ -0,0 +1,9 @@
+package com.ceihtel.chivalry.repositories;
+
+import com.ceihtel.chivalry.entities.Army;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ArmyRepository extends ReactiveMongoRepository<Army, String>, ArmyRepositoryCustom {
+}
@@ -0,0 +1,10 @@
+package com.ceihtel.chivalry.repositories;
+
+import reactor.core.publisher.Mono;
+
+public interface ArmyRepositoryCustom {
+    /**
+     * Returns the army with identifier {@code id} and its soldiers in a single {@code $lookup}
+     */
+    Mono<ArmyWithSoldiers> findWithSoldiers(String id);
+}
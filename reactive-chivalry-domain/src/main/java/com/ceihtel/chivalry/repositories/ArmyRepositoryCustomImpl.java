@@ -0,0 +1,29 @@
+package com.ceihtel.chivalry.repositories;
+
+import com.ceihtel.chivalry.entities.Army;
+import com.ceihtel.chivalry.entities.Soldier;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import reactor.core.publisher.Mono;
+
+@RequiredArgsConstructor
+public class ArmyRepositoryCustomImpl implements ArmyRepositoryCustom {
+    private final ReactiveMongoOperations mongoOperations;
+
+    @Override
+    public Mono<ArmyWithSoldiers> findWithSoldiers(String id) {
+        if (!ObjectId.isValid(id)) {
+            // No army could have it
+            return Mono.empty();
+        }
+
+        var aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("_id").is(new ObjectId(id))),
+                Aggregation.lookup(mongoOperations.getCollectionName(Soldier.class), "_id", "armyId", "soldiers"));
+        return mongoOperations.aggregate(aggregation, mongoOperations.getCollectionName(Army.class), ArmyWithSoldiers.class)
+                .next();
+    }
+}
@@ -0,0 +1,22 @@
+package com.ceihtel.chivalry.repositories;
+
+import com.ceihtel.chivalry.entities.Soldier;
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+
+import java.util.List;
+
+/**
+ * An army together with its soldiers, as joined by MongoDB
+ */
+@Data
+public class ArmyWithSoldiers {
+    @Id
+    private String id;
+
+    private String name;
+
+    private Long version;
+
+    private List<Soldier> soldiers;
+}
@@ -0,0 +1,11 @@
+package com.ceihtel.chivalry.repositories;
+
+import com.ceihtel.chivalry.entities.Soldier;
+
+import java.util.List;
+
+/**
+ * Soldiers written by an unordered bulk insert, and those rejected as duplicates, as the instances given to it
+ */
+public record BulkInsertResult(List<Soldier> inserted, List<Soldier> duplicates) {
+}
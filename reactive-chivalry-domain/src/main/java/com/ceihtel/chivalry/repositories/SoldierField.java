@@ -0,0 +1,26 @@
+package com.ceihtel.chivalry.repositories;
+
+import com.ceihtel.chivalry.entities.Soldier;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.function.Function;
+
+/**
+ * Soldier properties a read can be narrowed to
+ */
+@Getter
+@RequiredArgsConstructor
+public enum SoldierField {
+    ID("id", Soldier::getId),
+    NAME("name", Soldier::getName),
+    WEAPON("weapon", Soldier::getWeapon),
+    ARMY_ID("armyId", Soldier::getArmyId);
+
+    private final String property;
+    private final Function<Soldier, Object> accessor;
+
+    public Object valueOf(Soldier soldier) {
+        return accessor.apply(soldier);
+    }
+}
@@ -0,0 +1,68 @@
+package com.ceihtel.chivalry.repositories;
+
+import com.ceihtel.chivalry.entities.Soldier;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+
+/**
+ * Indexes not declared on {@link Soldier}: the case-insensitive filter indexes, which need a collation, and the unique
+ * name index, sparse so that nameless soldiers do not collide, which replaces the non-sparse one of earlier versions
+ */
+@Slf4j
+@Component
+@Profile("!in-memory")
+@RequiredArgsConstructor
+public class SoldierIndexes {
+    private static final String NAME_INDEX = "name";
+
+    private final ReactiveMongoOperations mongoOperations;
+
+    static List<Index> indexes() {
+        return List.of(
+                new Index().on("name", Sort.Direction.ASC).named(NAME_INDEX).unique().sparse(),
+                new Index().on("weapon", Sort.Direction.ASC).on("name", Sort.Direction.ASC).named("weapon_name_ci")
+                        .collation(SoldierRepositoryCustomImpl.CASE_INSENSITIVE),
+                new Index().on("name", Sort.Direction.ASC).named("name_ci")
+                        .collation(SoldierRepositoryCustomImpl.CASE_INSENSITIVE));
+    }
+
+    @PostConstruct
+    public void createOnStartup() {
+        ensure().subscribe(null, e -> log.warn("Could not create the soldier indexes", e));
+    }
+
+    public Mono<Void> ensure() {
+        var indexOps = mongoOperations.indexOps(Soldier.class);
+        return dropNonSparseNameIndex(indexOps)
+                .thenMany(Flux.fromIterable(indexes()))
+                .concatMap(indexOps::ensureIndex)
+                .then();
+    }
+
+    private static Mono<Void> dropNonSparseNameIndex(ReactiveIndexOperations indexOps) {
+        // MongoDB refuses to create an index with other options on the same key, the old one has to go first
+        return indexOps.getIndexInfo()
+                .filter(index -> index.isUnique() && !index.isSparse() && isOnNameOnly(index))
+                .concatMap(index -> {
+                    log.info("Dropping the non-sparse unique name index {}", index.getName());
+                    return indexOps.dropIndex(index.getName());
+                })
+                .then();
+    }
+
+    private static boolean isOnNameOnly(IndexInfo index) {
+        return index.getIndexFields().size() == 1 && index.getIndexFields().get(0).getKey().equals("name");
+    }
+}
@@ -3,9 +3,18 @@ package com.ceihtel.chivalry.repositories;
 import com.ceihtel.chivalry.entities.Soldier;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Collection;
+
 @Repository
-public interface SoldierRepository extends ReactiveMongoRepository<Soldier, String> {
+public interface SoldierRepository extends ReactiveMongoRepository<Soldier, String>, SoldierRepositoryCustom {
     Mono<Soldier> findByName(String name);
+
+    Flux<Soldier> findByNameIn(Collection<String> names);
+
+    Mono<Long> deleteByWeapon(String weapon);
+
+    Mono<Long> deleteByNameIn(Collection<String> names);
 }
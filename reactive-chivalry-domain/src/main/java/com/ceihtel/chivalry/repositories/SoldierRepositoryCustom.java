@@ -0,0 +1,91 @@
+package com.ceihtel.chivalry.repositories;
+
+import com.ceihtel.chivalry.entities.Soldier;
+import org.bson.BsonValue;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+public interface SoldierRepositoryCustom {
+    /**
+     * Streams every soldier, fetching them from the cursor in batches of {@code batchSize} as downstream demand
+     * arrives, so that no more than a couple of batches are held in memory at once
+     */
+    Flux<Soldier> streamAll(int batchSize);
+
+    /**
+     * Returns at most {@code limit} soldiers in identifier order, starting right after {@code afterId} (or from the
+     * beginning when it is null), as a range scan on the {@code _id} index
+     */
+    Flux<Soldier> findPage(@Nullable String afterId, int limit);
+
+    /**
+     * Streams every soldier in identifier order, right after {@code afterId} when given, in batches of {@code batchSize}
+     */
+    Flux<Soldier> streamAfter(@Nullable String afterId, int batchSize);
+
+    /**
+     * Returns the soldiers matching both filters, each ignored when null, case-insensitively and in name order
+     */
+    Flux<Soldier> findFiltered(@Nullable String weapon, @Nullable String namePrefix);
+
+    /**
+     * Streams the soldiers matched like {@link #findFiltered}, in batches of {@code batchSize}
+     */
+    Flux<Soldier> streamFiltered(@Nullable String weapon, @Nullable String namePrefix, int batchSize);
+
+    /**
+     * Counts the soldiers carrying each weapon in a single aggregation, in weapon order
+     */
+    Flux<WeaponCount> countByWeapon();
+
+    /**
+     * Returns every soldier with only the given {@code fields} fetched, the others being left null
+     */
+    Flux<Soldier> findAllProjected(Set<SoldierField> fields);
+
+    /**
+     * Returns the soldiers matched like {@link #findFiltered}, with only the given {@code fields} fetched
+     */
+    Flux<Soldier> findFilteredProjected(@Nullable String weapon, @Nullable String namePrefix, Set<SoldierField> fields);
+
+    /**
+     * Returns the soldier called {@code name} with only the given {@code fields} fetched, the others being left null
+     */
+    Mono<Soldier> findByNameProjected(String name, Set<SoldierField> fields);
+
+    /**
+     * Inserts the soldiers in a single unordered bulk write, a duplicate not preventing the others from being written
+     */
+    Mono<BulkInsertResult> insertUnordered(List<Soldier> soldiers);
+
+    /**
+     * Sets the weapon of the soldier called {@code name}, creating it if needed, and returns it as it is afterwards
+     */
+    Mono<Soldier> upsertByName(String name, String weapon);
+
+    /**
+     * Sets the weapon of the soldier called {@code name} only if it is still {@code id} at {@code version}, returning nothing otherwise
+     */
+    Mono<Soldier> updateIfVersion(String name, String id, @Nullable Long version, String weapon);
+
+    /**
+     * Enlists the soldiers called by one of {@code names} in the army {@code armyId}, returning how many joined it
+     */
+    Mono<Long> enlist(String armyId, Collection<String> names);
+
+    /**
+     * Discharges the soldiers called by one of {@code names}, or all when null, from the army {@code armyId}
+     */
+    Mono<Long> discharge(String armyId, @Nullable Collection<String> names);
+
+    /**
+     * Follows the changes made to soldiers after {@code resumeToken} when given, which needs a replica set
+     */
+    Flux<ChangeStreamEvent<Soldier>> watch(@Nullable BsonValue resumeToken);
+}
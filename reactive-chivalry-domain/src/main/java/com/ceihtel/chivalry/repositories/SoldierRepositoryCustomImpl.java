@@ -0,0 +1,223 @@
+package com.ceihtel.chivalry.repositories;
+
+import com.ceihtel.chivalry.entities.Soldier;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.result.UpdateResult;
+import lombok.RequiredArgsConstructor;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Collation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+@RequiredArgsConstructor
+public class SoldierRepositoryCustomImpl implements SoldierRepositoryCustom {
+    /**
+     * Collation of the filter indexes created by {@link SoldierIndexes}
+     */
+    static final Collation CASE_INSENSITIVE = Collation.of("en").strength(Collation.ComparisonLevel.secondary());
+
+    private final ReactiveMongoOperations mongoOperations;
+
+    @Override
+    public Flux<Soldier> streamAll(int batchSize) {
+        return mongoOperations.find(new Query().cursorBatchSize(batchSize), Soldier.class)
+                .limitRate(batchSize);
+    }
+
+    @Override
+    public Flux<Soldier> findPage(@Nullable String afterId, int limit) {
+        var query = new Query()
+                .with(Sort.by(Sort.Direction.ASC, "id"))
+                .limit(limit);
+        if (afterId != null) {
+            query.addCriteria(Criteria.where("id").gt(new ObjectId(afterId)));
+        }
+        return mongoOperations.find(query, Soldier.class);
+    }
+
+    @Override
+    public Flux<Soldier> streamAfter(@Nullable String afterId, int batchSize) {
+        var query = new Query()
+                .with(Sort.by(Sort.Direction.ASC, "id"))
+                .cursorBatchSize(batchSize);
+        if (afterId != null) {
+            query.addCriteria(Criteria.where("id").gt(new ObjectId(afterId)));
+        }
+        return mongoOperations.find(query, Soldier.class)
+                .limitRate(batchSize);
+    }
+
+    @Override
+    public Flux<Soldier> findFiltered(@Nullable String weapon, @Nullable String namePrefix) {
+        return mongoOperations.find(filter(weapon, namePrefix), Soldier.class);
+    }
+
+    @Override
+    public Flux<Soldier> streamFiltered(@Nullable String weapon, @Nullable String namePrefix, int batchSize) {
+        return mongoOperations.find(filter(weapon, namePrefix).cursorBatchSize(batchSize), Soldier.class)
+                .limitRate(batchSize);
+    }
+
+    @Override
+    public Flux<WeaponCount> countByWeapon() {
+        var aggregation = Aggregation.newAggregation(Soldier.class,
+                Aggregation.group("weapon").count().as("count"),
+                Aggregation.sort(Sort.Direction.ASC, "_id"));
+        return mongoOperations.aggregate(aggregation, Document.class)
+                .map(document -> new WeaponCount(document.getString("_id"), document.get("count", Number.class).longValue()));
+    }
+
+    @Override
+    public Flux<Soldier> findAllProjected(Set<SoldierField> fields) {
+        return mongoOperations.find(project(new Query(), fields), Soldier.class);
+    }
+
+    @Override
+    public Flux<Soldier> findFilteredProjected(@Nullable String weapon, @Nullable String namePrefix, Set<SoldierField> fields) {
+        return mongoOperations.find(project(filter(weapon, namePrefix), fields), Soldier.class);
+    }
+
+    @Override
+    public Mono<Soldier> findByNameProjected(String name, Set<SoldierField> fields) {
+        return mongoOperations.findOne(project(Query.query(Criteria.where("name").is(name)), fields), Soldier.class);
+    }
+
+    @Override
+    public Mono<BulkInsertResult> insertUnordered(List<Soldier> soldiers) {
+        if (soldiers.isEmpty()) {
+            return Mono.just(new BulkInsertResult(List.of(), List.of()));
+        }
+
+        var documents = new ArrayList<Document>(soldiers.size());
+        for (var soldier : soldiers) {
+            if (soldier.getId() == null) {
+                soldier.setId(new ObjectId().toHexString());
+            }
+            if (soldier.getVersion() == null) {
+                // Set by the template on regular inserts, bypassed here
+                soldier.setVersion(0L);
+            }
+            var document = new Document();
+            mongoOperations.getConverter().write(soldier, document);
+            documents.add(document);
+        }
+
+        return mongoOperations.getCollection(mongoOperations.getCollectionName(Soldier.class))
+                .flatMap(collection -> Mono.from(collection.insertMany(documents, new InsertManyOptions().ordered(false))))
+                .map(__ -> new BulkInsertResult(soldiers, List.of()))
+                .onErrorResume(MongoBulkWriteException.class, e -> toBulkInsertResult(soldiers, e));
+    }
+
+    @Override
+    public Mono<Soldier> upsertByName(String name, String weapon) {
+        return mongoOperations.update(Soldier.class)
+                .matching(Query.query(Criteria.where("name").is(name)))
+                .apply(new Update().set("weapon", weapon).inc("version", 1))
+                .withOptions(FindAndModifyOptions.options().upsert(true).returnNew(true))
+                .findAndModify();
+    }
+
+    @Override
+    public Mono<Soldier> updateIfVersion(String name, String id, @Nullable Long version, String weapon) {
+        return mongoOperations.update(Soldier.class)
+                .matching(Query.query(Criteria.where("id").is(id).and("name").is(name).and("version").is(version)))
+                .apply(new Update().set("weapon", weapon).inc("version", 1))
+                .withOptions(FindAndModifyOptions.options().returnNew(true))
+                .findAndModify();
+    }
+
+    @Override
+    public Mono<Long> enlist(String armyId, Collection<String> names) {
+        var army = new ObjectId(armyId);
+        // Soldiers already in the army are left out, their version does not change
+        return mongoOperations.updateMulti(Query.query(Criteria.where("name").in(names).and("armyId").ne(army)),
+                        new Update().set("armyId", army).inc("version", 1), Soldier.class)
+                .map(UpdateResult::getModifiedCount);
+    }
+
+    @Override
+    public Mono<Long> discharge(String armyId, @Nullable Collection<String> names) {
+        var criteria = Criteria.where("armyId").is(new ObjectId(armyId));
+        if (names != null) {
+            criteria.and("name").in(names);
+        }
+        return mongoOperations.updateMulti(Query.query(criteria), new Update().unset("armyId").inc("version", 1), Soldier.class)
+                .map(UpdateResult::getModifiedCount);
+    }
+
+    @Override
+    public Flux<ChangeStreamEvent<Soldier>> watch(@Nullable BsonValue resumeToken) {
+        var options = ChangeStreamOptions.builder().returnFullDocumentOnUpdate();
+        if (resumeToken != null) {
+            options.resumeAfter(resumeToken);
+        }
+        return mongoOperations.changeStream(mongoOperations.getCollectionName(Soldier.class), options.build(), Soldier.class);
+    }
+
+    static Query filter(@Nullable String weapon, @Nullable String namePrefix) {
+        var query = new Query()
+                .with(Sort.by(Sort.Direction.ASC, "name"))
+                .collation(CASE_INSENSITIVE);
+        if (weapon != null) {
+            query.addCriteria(Criteria.where("weapon").is(weapon));
+        }
+        if (namePrefix != null) {
+            // A range rather than a regex, so that the collated index bounds the scan. U+FFFF sorts after every
+            // character, closing the range right after the last name starting with the prefix.
+            query.addCriteria(Criteria.where("name").gte(namePrefix).lt(namePrefix + '\uffff'));
+        }
+        return query;
+    }
+
+    private static Query project(Query query, Set<SoldierField> fields) {
+        for (var field : fields) {
+            query.fields().include(field.getProperty());
+        }
+        if (!fields.contains(SoldierField.ID)) {
+            // MongoDB returns the identifier unless told otherwise
+            query.fields().exclude("id");
+        }
+        return query;
+    }
+
+    private static Mono<BulkInsertResult> toBulkInsertResult(List<Soldier> soldiers, MongoBulkWriteException e) {
+        if (e.getWriteConcernError() != null) {
+            return Mono.error(e);
+        }
+
+        var rejected = new BitSet(soldiers.size());
+        for (var error : e.getWriteErrors()) {
+            if (error.getCategory() != ErrorCategory.DUPLICATE_KEY) {
+                return Mono.error(e);
+            }
+            rejected.set(error.getIndex());
+        }
+
+        var inserted = new ArrayList<Soldier>(soldiers.size() - rejected.cardinality());
+        var duplicates = new ArrayList<Soldier>(rejected.cardinality());
+        for (int i = 0; i < soldiers.size(); i++) {
+            (rejected.get(i) ? duplicates : inserted).add(soldiers.get(i));
+        }
+        return Mono.just(new BulkInsertResult(inserted, duplicates));
+    }
+}
@@ -0,0 +1,9 @@
+package com.ceihtel.chivalry.repositories;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Number of soldiers carrying a weapon, a null weapon counting unarmed soldiers
+ */
+public record WeaponCount(@Nullable String weapon, long count) {
+}
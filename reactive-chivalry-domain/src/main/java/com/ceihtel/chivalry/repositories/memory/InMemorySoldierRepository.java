@@ -0,0 +1,538 @@
+package com.ceihtel.chivalry.repositories.memory;
+
+import com.ceihtel.chivalry.entities.Soldier;
+import com.ceihtel.chivalry.repositories.BulkInsertResult;
+import com.ceihtel.chivalry.repositories.SoldierField;
+import com.ceihtel.chivalry.repositories.SoldierRepository;
+import com.ceihtel.chivalry.repositories.WeaponCount;
+import org.bson.BsonValue;
+import org.bson.types.ObjectId;
+import org.reactivestreams.Publisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.repository.query.FluentQuery;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * {@link SoldierRepository} keeping the army in memory, for running without MongoDB
+ */
+@Repository
+@Profile("in-memory")
+public class InMemorySoldierRepository implements SoldierRepository {
+    public static final String DUPLICATE_NAME = "Duplicate key on soldier name '%s'";
+    public static final String DUPLICATE_ID = "Duplicate key on soldier id '%s'";
+    public static final String QUERY_BY_EXAMPLE_UNSUPPORTED = "Query by example is not supported in memory";
+    public static final String CHANGE_STREAMS_UNSUPPORTED = "Change streams are not supported in memory";
+    public static final String STALE_VERSION = "Soldier '%s' is no longer at version %s";
+
+    private final ConcurrentNavigableMap<String, Soldier> soldiersById = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<String, String> idsByName = new ConcurrentHashMap<>();
+
+    @Override
+    public Mono<Soldier> findByName(String name) {
+        return Mono.fromSupplier(() -> find(name));
+    }
+
+    @Override
+    public Flux<Soldier> findByNameIn(Collection<String> names) {
+        return Flux.fromIterable(names)
+                .distinct()
+                .mapNotNull(this::find);
+    }
+
+    @Override
+    public Mono<Long> deleteByWeapon(String weapon) {
+        return Mono.fromSupplier(() -> soldiersById.values().stream()
+                .filter(soldier -> Objects.equals(soldier.getWeapon(), weapon))
+                .filter(soldier -> remove(soldier.getId()) != null)
+                .count());
+    }
+
+    @Override
+    public Mono<Long> deleteByNameIn(Collection<String> names) {
+        return Mono.fromSupplier(() -> names.stream()
+                .distinct()
+                .map(idsByName::get)
+                .filter(id -> id != null && remove(id) != null)
+                .count());
+    }
+
+    @Override
+    public Flux<Soldier> streamAll(int batchSize) {
+        return findAll().limitRate(batchSize);
+    }
+
+    @Override
+    public Flux<Soldier> findPage(@Nullable String afterId, int limit) {
+        return Flux.defer(() -> Flux.fromIterable((afterId == null ? soldiersById : soldiersById.tailMap(afterId, false)).values()))
+                .take(limit)
+                .map(InMemorySoldierRepository::copy);
+    }
+
+    @Override
+    public Flux<Soldier> streamAfter(@Nullable String afterId, int batchSize) {
+        return findPage(afterId, Integer.MAX_VALUE).limitRate(batchSize);
+    }
+
+    @Override
+    public Flux<Soldier> findFiltered(@Nullable String weapon, @Nullable String namePrefix) {
+        return Flux.defer(() -> Flux.fromStream(soldiersById.values().stream()
+                        .filter(soldier -> weapon == null || weapon.equalsIgnoreCase(soldier.getWeapon()))
+                        .filter(soldier -> namePrefix == null || soldier.getName() != null
+                                && soldier.getName().regionMatches(true, 0, namePrefix, 0, namePrefix.length()))
+                        .sorted(Comparator.comparing(Soldier::getName, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER)))))
+                .map(InMemorySoldierRepository::copy);
+    }
+
+    @Override
+    public Flux<Soldier> streamFiltered(@Nullable String weapon, @Nullable String namePrefix, int batchSize) {
+        return findFiltered(weapon, namePrefix).limitRate(batchSize);
+    }
+
+    @Override
+    public Flux<WeaponCount> countByWeapon() {
+        return Mono.fromSupplier(() -> {
+                    // Unarmed soldiers first, as MongoDB sorts them
+                    var counts = new TreeMap<String, Long>(Comparator.nullsFirst(Comparator.naturalOrder()));
+                    soldiersById.values().forEach(soldier -> counts.merge(soldier.getWeapon(), 1L, Long::sum));
+                    return counts;
+                })
+                .flatMapIterable(Map::entrySet)
+                .map(entry -> new WeaponCount(entry.getKey(), entry.getValue()));
+    }
+
+    @Override
+    public Flux<Soldier> findAllProjected(Set<SoldierField> fields) {
+        return Flux.defer(() -> Flux.fromIterable(soldiersById.values()))
+                .map(soldier -> project(soldier, fields));
+    }
+
+    @Override
+    public Flux<Soldier> findFilteredProjected(@Nullable String weapon, @Nullable String namePrefix, Set<SoldierField> fields) {
+        return findFiltered(weapon, namePrefix)
+                .map(soldier -> project(soldier, fields));
+    }
+
+    @Override
+    public Mono<Soldier> findByNameProjected(String name, Set<SoldierField> fields) {
+        return findByName(name)
+                .map(soldier -> project(soldier, fields));
+    }
+
+    @Override
+    public Mono<BulkInsertResult> insertUnordered(List<Soldier> soldiers) {
+        return Mono.fromSupplier(() -> {
+            var inserted = new ArrayList<Soldier>(soldiers.size());
+            var duplicates = new ArrayList<Soldier>();
+            for (var soldier : soldiers) {
+                try {
+                    store(soldier);
+                    inserted.add(soldier);
+                } catch (DuplicateKeyException e) {
+                    duplicates.add(soldier);
+                }
+            }
+            return new BulkInsertResult(inserted, duplicates);
+        });
+    }
+
+    @Override
+    public Mono<Soldier> upsertByName(String name, String weapon) {
+        return Mono.fromSupplier(() -> {
+            while (true) {
+                var id = idsByName.get(name);
+                if (id == null) {
+                    var soldier = new Soldier();
+                    soldier.setName(name);
+                    soldier.setWeapon(weapon);
+                    try {
+                        store(soldier);
+                        return soldier;
+                    } catch (DuplicateKeyException e) {
+                        // Created concurrently, update it instead
+                        continue;
+                    }
+                }
+
+                var current = soldiersById.get(id);
+                if (current == null) {
+                    // Being inserted or deleted concurrently, look again
+                    Thread.onSpinWait();
+                    continue;
+                }
+                var updated = copy(current);
+                updated.setWeapon(weapon);
+                updated.setVersion(next(current.getVersion()));
+                if (soldiersById.replace(id, current, updated)) {
+                    return copy(updated);
+                }
+            }
+        });
+    }
+
+    @Override
+    public Mono<Soldier> updateIfVersion(String name, String id, @Nullable Long version, String weapon) {
+        return Mono.fromSupplier(() -> {
+            var current = soldiersById.get(id);
+            if (current == null || !name.equals(current.getName()) || !Objects.equals(current.getVersion(), version)) {
+                return null;
+            }
+            var updated = copy(current);
+            updated.setWeapon(weapon);
+            updated.setVersion(next(version));
+            return soldiersById.replace(id, current, updated) ? copy(updated) : null;
+        });
+    }
+
+    @Override
+    public Mono<Long> enlist(String armyId, Collection<String> names) {
+        return Mono.fromSupplier(() -> names.stream()
+                .distinct()
+                .filter(name -> setArmy(idsByName.get(name), current -> !armyId.equals(current), armyId))
+                .count());
+    }
+
+    @Override
+    public Mono<Long> discharge(String armyId, @Nullable Collection<String> names) {
+        return Mono.fromSupplier(() -> {
+            var ids = names == null
+                    ? soldiersById.values().stream().filter(soldier -> armyId.equals(soldier.getArmyId())).map(Soldier::getId)
+                    : names.stream().distinct().map(idsByName::get);
+            return ids.filter(id -> setArmy(id, armyId::equals, null)).count();
+        });
+    }
+
+    @Override
+    public Flux<ChangeStreamEvent<Soldier>> watch(@Nullable BsonValue resumeToken) {
+        return Flux.error(new UnsupportedOperationException(CHANGE_STREAMS_UNSUPPORTED));
+    }
+
+    @Override
+    public <S extends Soldier> Mono<S> insert(S entity) {
+        return Mono.fromSupplier(() -> {
+            store(entity);
+            return entity;
+        });
+    }
+
+    @Override
+    public <S extends Soldier> Flux<S> insert(Iterable<S> entities) {
+        return Flux.fromIterable(entities).concatMap(entity -> insert(entity));
+    }
+
+    @Override
+    public <S extends Soldier> Flux<S> insert(Publisher<S> entities) {
+        return Flux.from(entities).concatMap(entity -> insert(entity));
+    }
+
+    @Override
+    public <S extends Soldier> Mono<S> save(S entity) {
+        return Mono.fromSupplier(() -> {
+            // As with MongoDB, a soldier without a version is new
+            if (entity.getVersion() == null) {
+                store(entity);
+            } else {
+                update(entity);
+            }
+            return entity;
+        });
+    }
+
+    @Override
+    public <S extends Soldier> Flux<S> saveAll(Iterable<S> entities) {
+        return Flux.fromIterable(entities).concatMap(entity -> save(entity));
+    }
+
+    @Override
+    public <S extends Soldier> Flux<S> saveAll(Publisher<S> entityStream) {
+        return Flux.from(entityStream).concatMap(entity -> save(entity));
+    }
+
+    @Override
+    public Mono<Soldier> findById(String id) {
+        return Mono.fromSupplier(() -> copyOrNull(soldiersById.get(id)));
+    }
+
+    @Override
+    public Mono<Soldier> findById(Publisher<String> id) {
+        return Mono.from(id).flatMap(soldierId -> findById(soldierId));
+    }
+
+    @Override
+    public Mono<Boolean> existsById(String id) {
+        return Mono.fromSupplier(() -> soldiersById.containsKey(id));
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Publisher<String> id) {
+        return Mono.from(id).flatMap(soldierId -> existsById(soldierId));
+    }
+
+    @Override
+    public Flux<Soldier> findAll() {
+        // Weakly consistent iteration, soldiers are copied one at a time as demand comes in
+        return Flux.defer(() -> Flux.fromIterable(soldiersById.values()))
+                .map(InMemorySoldierRepository::copy);
+    }
+
+    @Override
+    public Flux<Soldier> findAll(Sort sort) {
+        if (sort.isUnsorted()) {
+            return findAll();
+        }
+        return findAll().sort(comparator(sort));
+    }
+
+    @Override
+    public Flux<Soldier> findAllById(Iterable<String> ids) {
+        return Flux.fromIterable(ids).concatMap(soldierId -> findById(soldierId));
+    }
+
+    @Override
+    public Flux<Soldier> findAllById(Publisher<String> idStream) {
+        return Flux.from(idStream).concatMap(soldierId -> findById(soldierId));
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return Mono.fromSupplier(() -> (long) soldiersById.size());
+    }
+
+    @Override
+    public Mono<Void> deleteById(String id) {
+        return Mono.fromRunnable(() -> remove(id));
+    }
+
+    @Override
+    public Mono<Void> deleteById(Publisher<String> id) {
+        return Mono.from(id).flatMap(soldierId -> deleteById(soldierId));
+    }
+
+    @Override
+    public Mono<Void> delete(Soldier entity) {
+        // As with MongoDB, only the version that was read is deleted
+        return Mono.fromRunnable(() -> {
+            var current = soldiersById.get(entity.getId());
+            if (current == null || !Objects.equals(current.getVersion(), entity.getVersion())
+                    || !soldiersById.remove(entity.getId(), current)) {
+                throw new OptimisticLockingFailureException(String.format(STALE_VERSION, entity.getId(), entity.getVersion()));
+            }
+            if (current.getName() != null) {
+                idsByName.remove(current.getName(), entity.getId());
+            }
+        });
+    }
+
+    @Override
+    public Mono<Void> deleteAllById(Iterable<? extends String> ids) {
+        return Mono.fromRunnable(() -> ids.forEach(this::remove));
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Iterable<? extends Soldier> entities) {
+        return Mono.fromRunnable(() -> entities.forEach(soldier -> remove(soldier.getId())));
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Publisher<? extends Soldier> entityStream) {
+        return Flux.from(entityStream)
+                .concatMap(this::delete)
+                .then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll() {
+        return Mono.fromRunnable(() -> soldiersById.keySet().forEach(this::remove));
+    }
+
+    @Override
+    public <S extends Soldier> Mono<S> findOne(Example<S> example) {
+        return Mono.error(new UnsupportedOperationException(QUERY_BY_EXAMPLE_UNSUPPORTED));
+    }
+
+    @Override
+    public <S extends Soldier> Flux<S> findAll(Example<S> example) {
+        return Flux.error(new UnsupportedOperationException(QUERY_BY_EXAMPLE_UNSUPPORTED));
+    }
+
+    @Override
+    public <S extends Soldier> Flux<S> findAll(Example<S> example, Sort sort) {
+        return Flux.error(new UnsupportedOperationException(QUERY_BY_EXAMPLE_UNSUPPORTED));
+    }
+
+    @Override
+    public <S extends Soldier> Mono<Long> count(Example<S> example) {
+        return Mono.error(new UnsupportedOperationException(QUERY_BY_EXAMPLE_UNSUPPORTED));
+    }
+
+    @Override
+    public <S extends Soldier> Mono<Boolean> exists(Example<S> example) {
+        return Mono.error(new UnsupportedOperationException(QUERY_BY_EXAMPLE_UNSUPPORTED));
+    }
+
+    @Override
+    public <S extends Soldier, R, P extends Publisher<R>> P findBy(Example<S> example, Function<FluentQuery.ReactiveFluentQuery<S>, P> queryFunction) {
+        throw new UnsupportedOperationException(QUERY_BY_EXAMPLE_UNSUPPORTED);
+    }
+
+    @Nullable
+    private Soldier find(String name) {
+        var id = idsByName.get(name);
+        return id == null ? null : copyOrNull(soldiersById.get(id));
+    }
+
+    /**
+     * Stores a new soldier, or fails if its name or identifier is taken
+     */
+    private void store(Soldier soldier) {
+        if (soldier.getId() == null) {
+            soldier.setId(new ObjectId().toHexString());
+        }
+        if (soldier.getVersion() == null) {
+            soldier.setVersion(0L);
+        }
+        var name = soldier.getName();
+        if (name != null && idsByName.putIfAbsent(name, soldier.getId()) != null) {
+            throw new DuplicateKeyException(String.format(DUPLICATE_NAME, name));
+        }
+        if (soldiersById.putIfAbsent(soldier.getId(), copy(soldier)) != null) {
+            if (name != null) {
+                idsByName.remove(name, soldier.getId());
+            }
+            throw new DuplicateKeyException(String.format(DUPLICATE_ID, soldier.getId()));
+        }
+    }
+
+    /**
+     * Replaces a stored soldier if it is still at the version of the given one, and bumps that version
+     */
+    private void update(Soldier soldier) {
+        var id = soldier.getId();
+        var name = soldier.getName();
+        var current = soldiersById.get(id);
+        if (current == null || !Objects.equals(current.getVersion(), soldier.getVersion())) {
+            throw new OptimisticLockingFailureException(String.format(STALE_VERSION, id, soldier.getVersion()));
+        }
+        var renamed = name != null && !name.equals(current.getName());
+        if (renamed) {
+            var owner = idsByName.putIfAbsent(name, id);
+            if (owner != null && !owner.equals(id)) {
+                throw new DuplicateKeyException(String.format(DUPLICATE_NAME, name));
+            }
+        }
+
+        var updated = copy(soldier);
+        updated.setVersion(next(soldier.getVersion()));
+        if (!soldiersById.replace(id, current, updated)) {
+            if (renamed) {
+                idsByName.remove(name, id);
+            }
+            throw new OptimisticLockingFailureException(String.format(STALE_VERSION, id, soldier.getVersion()));
+        }
+        soldier.setVersion(updated.getVersion());
+        if (current.getName() != null && !current.getName().equals(name)) {
+            idsByName.remove(current.getName(), id);
+        }
+    }
+
+    @Nullable
+    private Soldier remove(String id) {
+        var removed = soldiersById.remove(id);
+        if (removed != null && removed.getName() != null) {
+            idsByName.remove(removed.getName(), id);
+        }
+        return removed;
+    }
+
+    private static Comparator<Soldier> comparator(Sort sort) {
+        Comparator<Soldier> comparator = (left, right) -> 0;
+        for (var order : sort) {
+            Function<Soldier, String> property = switch (order.getProperty()) {
+                case "id" -> Soldier::getId;
+                case "name" -> Soldier::getName;
+                case "weapon" -> Soldier::getWeapon;
+                default -> throw new IllegalArgumentException("Unknown soldier property '" + order.getProperty() + "'");
+            };
+            var byProperty = Comparator.comparing(property, Comparator.nullsFirst(Comparator.<String>naturalOrder()));
+            comparator = comparator.thenComparing(order.isAscending() ? byProperty : byProperty.reversed());
+        }
+        return comparator;
+    }
+
+    private static Soldier project(Soldier soldier, Set<SoldierField> fields) {
+        var projection = new Soldier();
+        if (fields.contains(SoldierField.ID)) {
+            projection.setId(soldier.getId());
+        }
+        if (fields.contains(SoldierField.NAME)) {
+            projection.setName(soldier.getName());
+        }
+        if (fields.contains(SoldierField.WEAPON)) {
+            projection.setWeapon(soldier.getWeapon());
+        }
+        if (fields.contains(SoldierField.ARMY_ID)) {
+            projection.setArmyId(soldier.getArmyId());
+        }
+        return projection;
+    }
+
+    /**
+     * Moves the soldier to the army {@code armyId} if its current army satisfies {@code when}, returning whether it moved
+     */
+    private boolean setArmy(@Nullable String id, Predicate<String> when, @Nullable String armyId) {
+        while (id != null) {
+            var current = soldiersById.get(id);
+            if (current == null || !when.test(current.getArmyId())) {
+                return false;
+            }
+            var updated = copy(current);
+            updated.setArmyId(armyId);
+            updated.setVersion(next(current.getVersion()));
+            if (soldiersById.replace(id, current, updated)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Nullable
+    private static Soldier copyOrNull(@Nullable Soldier soldier) {
+        return soldier == null ? null : copy(soldier);
+    }
+
+    private static Soldier copy(Soldier soldier) {
+        var copy = new Soldier();
+        copy.setId(soldier.getId());
+        copy.setName(soldier.getName());
+        copy.setWeapon(soldier.getWeapon());
+        copy.setArmyId(soldier.getArmyId());
+        copy.setVersion(soldier.getVersion());
+        return copy;
+    }
+
+    private static long next(@Nullable Long version) {
+        return version == null ? 1 : version + 1;
+    }
+}
@@ -6,6 +6,6 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 @SpringBootApplication
 public class ChivalryApplication {
     public static void main(String[] args) {
-        SpringApplication.run(ChivalryApplication.class);
+        SpringApplication.run(ChivalryApplication.class, args);
     }
 }
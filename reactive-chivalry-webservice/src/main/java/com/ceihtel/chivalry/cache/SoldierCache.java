@@ -0,0 +1,86 @@
+package com.ceihtel.chivalry.cache;
+
+import com.ceihtel.chivalry.config.SoldierProperties;
+import com.ceihtel.chivalry.entities.Soldier;
+import com.ceihtel.chivalry.loaders.SoldierNameBatcher;
+import com.ceihtel.chivalry.metrics.DeferredMeterBinder;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Read-through cache of lookups by name, missing soldiers included, which writes must invalidate
+ */
+@Component
+public class SoldierCache implements DeferredMeterBinder {
+    private final SoldierNameBatcher soldierNameBatcher;
+    private final boolean enabled;
+    private final AsyncCache<String, Optional<Soldier>> cache;
+
+    public SoldierCache(SoldierNameBatcher soldierNameBatcher, SoldierProperties soldierProperties) {
+        var cacheProperties = soldierProperties.getCache();
+        this.soldierNameBatcher = soldierNameBatcher;
+        this.enabled = cacheProperties.isEnabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(cacheProperties.getMaximumSize())
+                .expireAfter(new SoldierExpiry(cacheProperties.getTimeToLive(), cacheProperties.getNotFoundTimeToLive()))
+                .recordStats()
+                .buildAsync();
+    }
+
+    public Mono<Soldier> findByName(String name) {
+        if (!enabled) {
+            return soldierNameBatcher.load(name);
+        }
+        // Not cancelling the shared future when one subscriber goes away, other callers may be waiting on it
+        return Mono.fromCompletionStage(() -> cache.get(name, (key, executor) -> load(key)))
+                .flatMap(Mono::justOrEmpty);
+    }
+
+    public void invalidate(String name) {
+        if (name != null) {
+            cache.synchronous().invalidate(name);
+        }
+    }
+
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache.synchronous(), "soldiers");
+    }
+
+    private CompletableFuture<Optional<Soldier>> load(String name) {
+        return soldierNameBatcher.load(name)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .toFuture();
+    }
+
+    private record SoldierExpiry(Duration timeToLive, Duration notFoundTimeToLive) implements Expiry<String, Optional<Soldier>> {
+        @Override
+        public long expireAfterCreate(String name, Optional<Soldier> soldier, long currentTime) {
+            return (soldier.isPresent() ? timeToLive : notFoundTimeToLive).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String name, Optional<Soldier> soldier, long currentTime, long currentDuration) {
+            return expireAfterCreate(name, soldier, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String name, Optional<Soldier> soldier, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
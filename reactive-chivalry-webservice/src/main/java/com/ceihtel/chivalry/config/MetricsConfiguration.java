@@ -0,0 +1,40 @@
+package com.ceihtel.chivalry.config;
+
+import com.ceihtel.chivalry.metrics.DeferredMeterBinder;
+import com.ceihtel.chivalry.metrics.MongoDocumentsCommandListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.PostConstruct;
+
+@Configuration
+public class MetricsConfiguration {
+    @PostConstruct
+    public void enableSchedulerMetrics() {
+        Schedulers.enableMetrics();
+    }
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoDocumentsMetricsCustomizer(ObjectProvider<MeterRegistry> meterRegistry) {
+        return builder -> builder.addCommandListener(new MongoDocumentsCommandListener(meterRegistry));
+    }
+
+    @Bean
+    public SmartInitializingSingleton deferredMeterBinders(ObjectProvider<MeterRegistry> meterRegistry,
+                                                           ObjectProvider<DeferredMeterBinder> meterBinders) {
+        return () -> meterRegistry.ifAvailable(registry -> meterBinders.orderedStream().forEach(binder -> binder.bindTo(registry)));
+    }
+
+    @Bean
+    public NettyServerCustomizer nettyMetricsCustomizer() {
+        // Connection, data and event loop metrics of Reactor Netty, published to the global registry. Timings per
+        // route are already recorded by Spring as http.server.requests, a single URI tag keeps cardinality in check.
+        return httpServer -> httpServer.metrics(true, uri -> "/");
+    }
+}
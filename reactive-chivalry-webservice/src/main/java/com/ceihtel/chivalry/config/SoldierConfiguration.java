@@ -0,0 +1,26 @@
+package com.ceihtel.chivalry.config;
+
+import com.ceihtel.chivalry.loaders.SoldierInsertBatcher;
+import com.ceihtel.chivalry.loaders.SoldierNameBatcher;
+import com.ceihtel.chivalry.repositories.SoldierRepository;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(SoldierProperties.class)
+public class SoldierConfiguration {
+    @Bean
+    public SoldierNameBatcher soldierNameBatcher(SoldierRepository soldierRepository, SoldierProperties soldierProperties) {
+        var batching = soldierProperties.getBatching();
+        return new SoldierNameBatcher(soldierRepository, batching.getWindow(), batching.getMaxBatchSize(), batching.getMaxPending(),
+                batching.getConcurrency(), batching.getTimeout());
+    }
+
+    @Bean
+    public SoldierInsertBatcher soldierInsertBatcher(SoldierRepository soldierRepository, SoldierProperties soldierProperties) {
+        var inserts = soldierProperties.getInserts();
+        return new SoldierInsertBatcher(soldierRepository, inserts.getLinger(), inserts.getMaxBatchSize(), inserts.getMaxPending(),
+                inserts.getConcurrency(), inserts.getTimeout());
+    }
+}
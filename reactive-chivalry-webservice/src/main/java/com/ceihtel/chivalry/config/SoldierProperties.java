@@ -0,0 +1,317 @@
+package com.ceihtel.chivalry.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "chivalry.soldiers")
+public class SoldierProperties {
+    /**
+     * Maximum number of names sent in a single server-side delete
+     */
+    private int deleteBatchSize = 1000;
+
+    /**
+     * Number of soldiers fetched per cursor batch when streaming the army as NDJSON or server-sent events
+     */
+    private int streamBatchSize = 256;
+
+    /**
+     * Upper bound of the {@code limit} accepted when paging through the army
+     */
+    private int maxPageSize = 1000;
+
+    /**
+     * Number of soldiers written per unordered bulk insert when creating soldiers in bulk
+     */
+    private int bulkBatchSize = 500;
+
+    /**
+     * Number of bulk inserts allowed in flight at once for a single bulk creation
+     */
+    private int bulkConcurrency = 4;
+
+    /**
+     * Maximum number of names sent in a single update when enlisting soldiers in an army or discharging them
+     */
+    private int membershipBatchSize = 1000;
+
+    private final Cache cache = new Cache();
+
+    private final Batching batching = new Batching();
+
+    private final Inserts inserts = new Inserts();
+
+    private final Seeding seeding = new Seeding();
+
+    private final Archive archive = new Archive();
+
+    private final Stats stats = new Stats();
+
+    private final Events events = new Events();
+
+    private final Limiter limiter = new Limiter();
+
+    private final Suggest suggest = new Suggest();
+
+    private final Tracing tracing = new Tracing();
+
+    @Data
+    public static class Cache {
+        /**
+         * Whether lookups by name go through the cache
+         */
+        private boolean enabled = true;
+
+        /**
+         * Maximum number of names kept in the cache, found or not
+         */
+        private long maximumSize = 10_000;
+
+        /**
+         * How long a soldier that was found is served from the cache
+         */
+        private Duration timeToLive = Duration.ofSeconds(30);
+
+        /**
+         * How long a name that matched no soldier is remembered as missing
+         */
+        private Duration notFoundTimeToLive = Duration.ofSeconds(5);
+    }
+
+    @Data
+    public static class Batching {
+        /**
+         * How long lookups by name are collected before being sent together in a single query
+         */
+        private Duration window = Duration.ofMillis(2);
+
+        /**
+         * Maximum number of names looked up by a single query, 1 sends every lookup on its own
+         */
+        private int maxBatchSize = 100;
+
+        /**
+         * Maximum number of lookups waiting to be sent, further ones being rejected
+         */
+        private int maxPending = 10_000;
+
+        /**
+         * Maximum number of lookup queries running at once
+         */
+        private int concurrency = 8;
+
+        /**
+         * How long a lookup may wait for its batch before failing
+         */
+        private Duration timeout = Duration.ofSeconds(5);
+    }
+
+    @Data
+    public static class Inserts {
+        /**
+         * Whether random soldiers are written together in batches, rather than one insert each
+         */
+        private boolean batched = true;
+
+        /**
+         * How long soldiers are collected before being written together in a single insert
+         */
+        private Duration linger = Duration.ofMillis(5);
+
+        /**
+         * Maximum number of soldiers written by a single insert
+         */
+        private int maxBatchSize = 500;
+
+        /**
+         * Maximum number of soldiers waiting to be written, further ones being rejected
+         */
+        private int maxPending = 10_000;
+
+        /**
+         * Maximum number of inserts running at once
+         */
+        private int concurrency = 4;
+
+        /**
+         * How long a soldier may wait for its batch to be acknowledged before failing
+         */
+        private Duration timeout = Duration.ofSeconds(10);
+    }
+
+    @Data
+    public static class Seeding {
+        /**
+         * Upper bound of the {@code count} accepted when generating random soldiers
+         */
+        private int maxCount = 10_000_000;
+
+        /**
+         * Number of generated soldiers written per unordered bulk insert
+         */
+        private int batchSize = 1000;
+
+        /**
+         * Number of bulk inserts allowed in flight at once for a single seeding
+         */
+        private int concurrency = 8;
+
+        /**
+         * How often the progress of a seeding is reported
+         */
+        private Duration progressInterval = Duration.ofSeconds(1);
+    }
+
+    @Data
+    public static class Archive {
+        /**
+         * Number of soldiers per cursor batch when exporting, and per bulk insert when importing
+         */
+        private int batchSize = 1000;
+
+        /**
+         * Number of bulk inserts allowed in flight at once for a single import
+         */
+        private int importConcurrency = 4;
+
+        /**
+         * Deflate level of exports, from 1 (fastest) to 9 (smallest)
+         */
+        private int compressionLevel = 1;
+    }
+
+    @Data
+    public static class Stats {
+        /**
+         * Whether weapon statistics are served from counters rather than aggregated on every read
+         */
+        private boolean materialized = false;
+
+        /**
+         * How often materialized counters are reconciled against an aggregation
+         */
+        private Duration reconcileInterval = Duration.ofMinutes(1);
+    }
+
+    @Data
+    public static class Events {
+        public enum Source {
+            /**
+             * Events published by this instance for the writes it serves, works without a replica set
+             */
+            API,
+            /**
+             * Events read from a MongoDB change stream, including writes made by other instances or outside the API
+             */
+            CHANGE_STREAM
+        }
+
+        /**
+         * Where the events pushed to clients following the army come from
+         */
+        private Source source = Source.API;
+
+        /**
+         * Number of events kept for a client reading slower than events come in, the oldest being dropped beyond that
+         */
+        private int bufferSize = 256;
+
+        /**
+         * Delay before reopening the change stream after it failed, doubled on every consecutive failure
+         */
+        private Duration retryBackoff = Duration.ofSeconds(1);
+    }
+
+    @Data
+    public static class Limiter {
+        /**
+         * Whether requests beyond the concurrency limit of their group are rejected
+         */
+        private boolean enabled = true;
+
+        /**
+         * Delay after which rejected clients are told to try again
+         */
+        private Duration retryAfter = Duration.ofSeconds(1);
+
+        private final Group reads = new Group(Duration.ofMillis(200));
+
+        private final Group writes = new Group(Duration.ofMillis(500));
+
+        @Data
+        public static class Group {
+            /**
+             * Number of requests allowed in flight at once on startup
+             */
+            private int initialLimit = 20;
+
+            /**
+             * Lowest number of requests allowed in flight at once, however slow they are
+             */
+            private int minLimit = 4;
+
+            /**
+             * Highest number of requests allowed in flight at once, however fast they are
+             */
+            private int maxLimit = 200;
+
+            /**
+             * Latency beyond which a request is taken as a sign of overload, and shrinks the limit
+             */
+            private Duration latencyThreshold;
+
+            /**
+             * Factor applied to the limit on every sign of overload
+             */
+            private double backoffRatio = 0.9;
+
+            public Group(Duration latencyThreshold) {
+                this.latencyThreshold = latencyThreshold;
+            }
+        }
+    }
+
+    @Data
+    public static class Suggest {
+        /**
+         * Whether soldier names are indexed in memory for suggestions, the index holding every name of the army
+         */
+        private boolean enabled = true;
+
+        /**
+         * Upper bound of the {@code limit} accepted when suggesting names
+         */
+        private int maxLimit = 100;
+
+        /**
+         * How often the index checks whether it should be rebuilt or compacted
+         */
+        private Duration refreshDelay = Duration.ofSeconds(1);
+
+        /**
+         * How often the index is rebuilt from the collection anyway, to account for writes made outside the API
+         */
+        private Duration rebuildInterval = Duration.ofMinutes(10);
+    }
+
+    @Data
+    public static class Tracing {
+        /**
+         * Whether requests are timed stage by stage, and the slow ones reported
+         */
+        private boolean enabled = true;
+
+        /**
+         * Duration beyond which a request is logged and kept for the slowrequests endpoint
+         */
+        private Duration slowThreshold = Duration.ofMillis(500);
+
+        /**
+         * Number of most recent slow requests kept for the slowrequests endpoint
+         */
+        private int slowRequestsKept = 100;
+    }
+}
@@ -0,0 +1,50 @@
+package com.ceihtel.chivalry.config;
+
+import com.ceihtel.chivalry.tracing.RequestTimingCommandListener;
+import com.ceihtel.chivalry.tracing.TimedJackson2JsonDecoder;
+import com.ceihtel.chivalry.tracing.TimedJackson2JsonEncoder;
+import com.ceihtel.chivalry.tracing.TimedValidator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.validation.Validator;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+/**
+ * Times the decoding, validation and encoding of bodies, and MongoDB round trips
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "chivalry.soldiers.tracing", name = "enabled", matchIfMissing = true)
+public class TracingConfiguration {
+    @Bean
+    @Order(1)
+    public CodecCustomizer timedJacksonCodecCustomizer(ObjectMapper objectMapper) {
+        // Replaces the codecs set up by Spring Boot, which come first
+        return configurer -> {
+            configurer.defaultCodecs().jackson2JsonDecoder(new TimedJackson2JsonDecoder(objectMapper));
+            configurer.defaultCodecs().jackson2JsonEncoder(new TimedJackson2JsonEncoder(objectMapper));
+        };
+    }
+
+    @Bean
+    public WebFluxConfigurer timedValidatorConfigurer(javax.validation.Validator validator) {
+        var timedValidator = new TimedValidator(new SpringValidatorAdapter(validator));
+        return new WebFluxConfigurer() {
+            @Override
+            public Validator getValidator() {
+                return timedValidator;
+            }
+        };
+    }
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoRequestTimingCustomizer() {
+        return builder -> builder.contextProvider(RequestTimingCommandListener.contextProvider())
+                .addCommandListener(new RequestTimingCommandListener());
+    }
+}
@@ -0,0 +1,84 @@
+package com.ceihtel.chivalry.controllers;
+
+import com.ceihtel.chivalry.cache.SoldierCache;
+import com.ceihtel.chivalry.config.SoldierProperties;
+import com.ceihtel.chivalry.entities.Army;
+import com.ceihtel.chivalry.exceptions.ArmyNotFoundException;
+import com.ceihtel.chivalry.mappers.ArmyMapper;
+import com.ceihtel.chivalry.repositories.ArmyRepository;
+import com.ceihtel.chivalry.repositories.ArmyWithSoldiers;
+import com.ceihtel.chivalry.repositories.SoldierRepository;
+import com.ceihtel.chivalry.requests.ArmyMembersDTO;
+import com.ceihtel.chivalry.requests.CreateArmyDTO;
+import com.ceihtel.chivalry.responses.ArmyMembersChangeDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Armies are kept in MongoDB only, the in-memory profile has no army
+ */
+@RestController
+@RequestMapping("/armies")
+@RequiredArgsConstructor
+@Profile("!in-memory")
+public class ArmyController {
+    private final ArmyRepository armyRepository;
+    private final SoldierRepository soldierRepository;
+    private final ArmyMapper armyMapper;
+    private final SoldierProperties soldierProperties;
+    private final SoldierCache soldierCache;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<Army> create(@RequestBody @Valid CreateArmyDTO createArmyDTO) {
+        return armyRepository.insert(armyMapper.toEntity(createArmyDTO));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ArmyWithSoldiers> getById(@PathVariable String id) {
+        // One aggregation, rather than a query per soldier
+        return armyRepository.findWithSoldiers(id)
+                .switchIfEmpty(Mono.error(() -> new ArmyNotFoundException(id)));
+    }
+
+    @PostMapping("/{id}/members")
+    public Mono<ArmyMembersChangeDTO> changeMembers(@PathVariable String id, @RequestBody @Valid ArmyMembersDTO armyMembersDTO) {
+        return armyRepository.existsById(id)
+                .filter(Boolean::booleanValue)
+                .switchIfEmpty(Mono.error(() -> new ArmyNotFoundException(id)))
+                .flatMap(__ -> inBatches(id, armyMembersDTO.getEnlist(), soldierRepository::enlist))
+                .zipWhen(enlisted -> inBatches(id, armyMembersDTO.getDischarge(), soldierRepository::discharge),
+                        ArmyMembersChangeDTO::new)
+                .doOnSuccess(__ -> {
+                    armyMembersDTO.getEnlist().forEach(soldierCache::invalidate);
+                    armyMembersDTO.getDischarge().forEach(soldierCache::invalidate);
+                });
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> delete(@PathVariable String id) {
+        return armyRepository.existsById(id)
+                .filter(Boolean::booleanValue)
+                .switchIfEmpty(Mono.error(() -> new ArmyNotFoundException(id)))
+                .flatMap(__ -> soldierRepository.discharge(id, null))
+                .then(armyRepository.deleteById(id))
+                .doOnSuccess(__ -> soldierCache.invalidateAll());
+    }
+
+    private Mono<Long> inBatches(String id, List<String> names, BiFunction<String, List<String>, Mono<Long>> change) {
+        // A single update per batch of names, whatever the number of soldiers it moves
+        return Flux.fromIterable(names)
+                .buffer(soldierProperties.getMembershipBatchSize())
+                .concatMap(batch -> change.apply(id, batch))
+                .reduce(0L, Long::sum);
+    }
+}
@@ -1,29 +1,111 @@
 package com.ceihtel.chivalry.controllers;
 
+import com.ceihtel.chivalry.exceptions.ArmyNotFoundException;
+import com.ceihtel.chivalry.exceptions.InvalidArchiveException;
+import com.ceihtel.chivalry.exceptions.InvalidCountException;
+import com.ceihtel.chivalry.exceptions.InvalidFieldsException;
+import com.ceihtel.chivalry.exceptions.InvalidPageException;
 import com.ceihtel.chivalry.exceptions.SoldierAlreadyExistsException;
 import com.ceihtel.chivalry.exceptions.SoldierNotFoundException;
+import com.ceihtel.chivalry.exceptions.StaleSoldierException;
+import com.ceihtel.chivalry.loaders.BatchQueueFullException;
+import com.ceihtel.chivalry.responses.ErrorDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 @RestControllerAdvice
-public class ChivalryControllerAdvice {
+public class ChivalryControllerAdvice implements MeterBinder {
+    public static final String SOLDIER_NAME_TAKEN = "A soldier with the same name already exists";
+    public static final String SOLDIER_MODIFIED = "The soldier was modified in the meantime";
+    public static final String SOLDIERS_OVERLOADED = "Too many soldiers are waiting on the database, try again later";
+
+    private static final ErrorDTO SOLDIER_NAME_TAKEN_ERROR = new ErrorDTO(SOLDIER_NAME_TAKEN);
+    private static final ErrorDTO SOLDIER_MODIFIED_ERROR = new ErrorDTO(SOLDIER_MODIFIED);
+    private static final ErrorDTO SOLDIERS_OVERLOADED_ERROR = new ErrorDTO(SOLDIERS_OVERLOADED);
+
+    private volatile MeterRegistry meterRegistry;
+    // Each exception type is answered with a single status, its counter is looked up once
+    private final ConcurrentMap<Class<?>, Counter> errorCounters = new ConcurrentHashMap<>();
+
     @ExceptionHandler(SoldierNotFoundException.class)
     @ResponseStatus(HttpStatus.NOT_FOUND)
-    public Map<String, String> onNotFoundError(SoldierNotFoundException e) {
-        return getError(e);
+    public ErrorDTO onNotFoundError(SoldierNotFoundException e) {
+        return getError(e, HttpStatus.NOT_FOUND, e.getMessage());
+    }
+
+    @ExceptionHandler(ArmyNotFoundException.class)
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    public ErrorDTO onArmyNotFoundError(ArmyNotFoundException e) {
+        return getError(e, HttpStatus.NOT_FOUND, e.getMessage());
     }
 
     @ExceptionHandler(SoldierAlreadyExistsException.class)
     @ResponseStatus(HttpStatus.CONFLICT)
-    public Map<String, String> onConflictError(SoldierAlreadyExistsException e) {
-        return getError(e);
+    public ErrorDTO onConflictError(SoldierAlreadyExistsException e) {
+        return getError(e, HttpStatus.CONFLICT, e.getMessage());
+    }
+
+    @ExceptionHandler(DuplicateKeyException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorDTO onDuplicateKeyError(DuplicateKeyException e) {
+        // Unique name index violations not already translated where the name was known
+        return getError(e, HttpStatus.CONFLICT, SOLDIER_NAME_TAKEN_ERROR);
+    }
+
+    @ExceptionHandler(StaleSoldierException.class)
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public ErrorDTO onPreconditionError(StaleSoldierException e) {
+        return getError(e, HttpStatus.PRECONDITION_FAILED, e.getMessage());
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public ErrorDTO onOptimisticLockingError(OptimisticLockingFailureException e) {
+        // The soldier matched, but changed before the conditional write went through
+        return getError(e, HttpStatus.PRECONDITION_FAILED, SOLDIER_MODIFIED_ERROR);
+    }
+
+    @ExceptionHandler(BatchQueueFullException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorDTO onOverloadError(BatchQueueFullException e) {
+        return getError(e, HttpStatus.SERVICE_UNAVAILABLE, SOLDIERS_OVERLOADED_ERROR);
+    }
+
+    @ExceptionHandler({InvalidPageException.class, InvalidFieldsException.class, InvalidCountException.class, InvalidArchiveException.class})
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorDTO onBadRequestError(RuntimeException e) {
+        return getError(e, HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        meterRegistry = registry;
+    }
+
+    private ErrorDTO getError(Exception e, HttpStatus status, String message) {
+        return getError(e, status, new ErrorDTO(message));
     }
 
-    private Map<String, String> getError(Exception e) {
-        return Map.of("error", e.getMessage());
+    private ErrorDTO getError(Exception e, HttpStatus status, ErrorDTO error) {
+        var registry = meterRegistry;
+        if (registry != null) {
+            var counter = errorCounters.get(e.getClass());
+            if (counter == null) {
+                counter = errorCounters.computeIfAbsent(e.getClass(), type -> registry.counter("chivalry.errors",
+                        "exception", type.getSimpleName(), "status", String.valueOf(status.value())));
+            }
+            counter.increment();
+        }
+        return error;
     }
 }
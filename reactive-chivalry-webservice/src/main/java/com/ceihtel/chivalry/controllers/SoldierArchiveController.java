@@ -0,0 +1,50 @@
+package com.ceihtel.chivalry.controllers;
+
+import com.ceihtel.chivalry.cache.SoldierCache;
+import com.ceihtel.chivalry.responses.SoldierImportDTO;
+import com.ceihtel.chivalry.services.SoldierArchiveService;
+import com.ceihtel.chivalry.stats.WeaponStatistics;
+import com.ceihtel.chivalry.suggest.SoldierNameIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Backups and environment clones, as gzip-compressed NDJSON
+ */
+@RestController
+@RequestMapping("/soldiers")
+@RequiredArgsConstructor
+public class SoldierArchiveController {
+    public static final String ARCHIVE_TYPE = "application/gzip";
+
+    private final SoldierArchiveService soldierArchiveService;
+    private final SoldierCache soldierCache;
+    private final WeaponStatistics weaponStatistics;
+    private final SoldierNameIndex soldierNameIndex;
+
+    @GetMapping(value = "/export", produces = ARCHIVE_TYPE)
+    public ResponseEntity<Flux<DataBuffer>> export(@RequestParam(required = false) String afterId, ServerHttpResponse response) {
+        var disposition = ContentDisposition.attachment().filename("soldiers.ndjson.gz").build();
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .body(soldierArchiveService.export(afterId, response.bufferFactory()));
+    }
+
+    @PostMapping(value = "/import", consumes = ARCHIVE_TYPE)
+    public Mono<SoldierImportDTO> importAll(@RequestBody Flux<DataBuffer> body) {
+        return soldierArchiveService.importAll(body)
+                .doFinally(__ -> {
+                    // Even a failed import may have written some soldiers
+                    soldierCache.invalidateAll();
+                    weaponStatistics.invalidate();
+                    soldierNameIndex.invalidate();
+                });
+    }
+}
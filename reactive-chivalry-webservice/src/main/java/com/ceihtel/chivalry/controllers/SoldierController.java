@@ -1,19 +1,48 @@
 package com.ceihtel.chivalry.controllers;
 
+import com.ceihtel.chivalry.cache.SoldierCache;
+import com.ceihtel.chivalry.config.SoldierProperties;
 import com.ceihtel.chivalry.entities.Soldier;
+import com.ceihtel.chivalry.events.SoldierEvent;
+import com.ceihtel.chivalry.events.SoldierEventBus;
+import com.ceihtel.chivalry.exceptions.InvalidCountException;
+import com.ceihtel.chivalry.exceptions.InvalidPageException;
 import com.ceihtel.chivalry.exceptions.SoldierAlreadyExistsException;
 import com.ceihtel.chivalry.exceptions.SoldierNotFoundException;
+import com.ceihtel.chivalry.exceptions.StaleSoldierException;
+import com.ceihtel.chivalry.loaders.SoldierInsertBatcher;
+import com.ceihtel.chivalry.loaders.SoldierNameBatcher;
 import com.ceihtel.chivalry.mappers.SoldierMapper;
+import com.ceihtel.chivalry.pagination.SoldierCursor;
+import com.ceihtel.chivalry.projections.SoldierProjection;
 import com.ceihtel.chivalry.repositories.SoldierRepository;
+import com.ceihtel.chivalry.repositories.WeaponCount;
 import com.ceihtel.chivalry.requests.CreateSoldierDTO;
+import com.ceihtel.chivalry.requests.DeleteSoldiersDTO;
+import com.ceihtel.chivalry.requests.UpdateSoldierDTO;
+import com.ceihtel.chivalry.responses.DeletedSoldiersDTO;
+import com.ceihtel.chivalry.responses.SoldierCreationDTO;
+import com.ceihtel.chivalry.responses.SoldierPageDTO;
+import com.ceihtel.chivalry.responses.SoldierSeedingDTO;
+import com.ceihtel.chivalry.responses.SoldierStatsDTO;
+import com.ceihtel.chivalry.services.SoldierIngestService;
+import com.ceihtel.chivalry.stats.WeaponStatistics;
+import com.ceihtel.chivalry.suggest.SoldierNameIndex;
+import com.ceihtel.chivalry.tracing.RequestTimings;
+import com.ceihtel.chivalry.versioning.SoldierETag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import javax.validation.Valid;
+import java.util.Map;
 
 @Slf4j
 @RestController
@@ -22,50 +51,249 @@ import javax.validation.Valid;
 public class SoldierController {
     private final SoldierRepository soldierRepository;
     private final SoldierMapper soldierMapper;
+    private final SoldierProperties soldierProperties;
+    private final SoldierIngestService soldierIngestService;
+    private final SoldierCache soldierCache;
+    private final SoldierNameBatcher soldierNameBatcher;
+    private final SoldierInsertBatcher soldierInsertBatcher;
+    private final WeaponStatistics weaponStatistics;
+    private final SoldierEventBus soldierEventBus;
+    private final SoldierNameIndex soldierNameIndex;
 
-    public static final String MISSING_SOLDIER = "Could not find a soldier called '%s'";
-    public static final String SOLDIER_ALREADY_EXISTS = "A soldier called '%s' already exists";
+    public static final String INVALID_PAGE_SIZE = "Page size must be positive, got %d";
+    public static final String INVALID_COUNT = "Count must be between 1 and %d, got %d";
+    public static final String FILTERED_PAGE = "Pages cannot be filtered by weapon or name prefix";
 
     @GetMapping
-    public Flux<Soldier> getAll() {
-        return soldierRepository.findAll();
+    public Flux<Soldier> getAll(@RequestParam(required = false) String weapon, @RequestParam(required = false) String namePrefix) {
+        if (weapon == null && namePrefix == null) {
+            return soldierRepository.findAll();
+        }
+        return soldierRepository.findFiltered(weapon, namePrefix);
+    }
+
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Soldier> streamAll(@RequestParam(required = false) String weapon, @RequestParam(required = false) String namePrefix) {
+        var batchSize = soldierProperties.getStreamBatchSize();
+        if (weapon == null && namePrefix == null) {
+            return soldierRepository.streamAll(batchSize);
+        }
+        return soldierRepository.streamFiltered(weapon, namePrefix, batchSize);
+    }
+
+    @GetMapping(params = {"fields", "!limit"})
+    public Flux<Map<String, Object>> getAllProjected(@RequestParam String fields, @RequestParam(required = false) String weapon,
+                                                     @RequestParam(required = false) String namePrefix) {
+        var selected = SoldierProjection.parse(fields);
+        var soldiers = weapon == null && namePrefix == null
+                ? soldierRepository.findAllProjected(selected)
+                : soldierRepository.findFilteredProjected(weapon, namePrefix, selected);
+        return soldiers.map(soldier -> SoldierProjection.toMap(soldier, selected));
+    }
+
+    @GetMapping(params = "limit")
+    public Mono<SoldierPageDTO> getPage(@RequestParam(required = false) String after, @RequestParam int limit,
+                                        @RequestParam(required = false) String weapon, @RequestParam(required = false) String namePrefix) {
+        if (limit < 1) {
+            throw new InvalidPageException(String.format(INVALID_PAGE_SIZE, limit));
+        }
+        if (weapon != null || namePrefix != null) {
+            // Pages follow identifier order, filtered soldiers come in name order
+            throw new InvalidPageException(FILTERED_PAGE);
+        }
+        var pageSize = Math.min(limit, soldierProperties.getMaxPageSize());
+        var afterId = after == null ? null : SoldierCursor.decode(after);
+
+        // One extra soldier tells whether another page follows, without a separate count
+        return soldierRepository.findPage(afterId, pageSize + 1)
+                .collectList()
+                .map(soldiers -> soldiers.size() > pageSize
+                        ? new SoldierPageDTO(soldiers.subList(0, pageSize), SoldierCursor.encode(soldiers.get(pageSize - 1).getId()))
+                        : new SoldierPageDTO(soldiers, null));
+    }
+
+    @GetMapping(value = "/events", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<SoldierEvent> getEvents() {
+        return soldierEventBus.subscribe();
+    }
+
+    @GetMapping("/stats")
+    public Mono<SoldierStatsDTO> getStats() {
+        return weaponStatistics.getCounts()
+                .collectList()
+                .map(counts -> new SoldierStatsDTO(counts.stream().mapToLong(WeaponCount::count).sum(), counts));
     }
 
     @GetMapping("/{name}")
-    public Mono<Soldier> getByName(@PathVariable String name) {
-        return soldierRepository.findByName(name)
-                .switchIfEmpty(Mono.error(new SoldierNotFoundException(String.format(MISSING_SOLDIER, name))));
+    public Mono<ResponseEntity<Soldier>> getByName(@PathVariable String name) {
+        // A request whose If-None-Match holds the ETag is answered with 304 Not Modified, without a body
+        return soldierCache.findByName(name)
+                .transform(RequestTimings.timed(RequestTimings.LOOKUP))
+                .switchIfEmpty(Mono.error(() -> new SoldierNotFoundException(name)))
+                .map(soldier -> ResponseEntity.ok().eTag(SoldierETag.of(soldier)).body(soldier));
+    }
+
+    @GetMapping(value = "/{name}", params = "fields")
+    public Mono<Map<String, Object>> getByNameProjected(@PathVariable String name, @RequestParam String fields) {
+        // Served by MongoDB rather than the cache, which holds whole soldiers
+        var selected = SoldierProjection.parse(fields);
+        return soldierRepository.findByNameProjected(name, selected)
+                .switchIfEmpty(Mono.error(() -> new SoldierNotFoundException(name)))
+                .map(soldier -> SoldierProjection.toMap(soldier, selected));
     }
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public Mono<Soldier> createWithName(@RequestBody @Valid CreateSoldierDTO createSoldierDTO) {
-        return soldierRepository.findByName(createSoldierDTO.getName())
-                .flatMap(__ -> Mono.error(new SoldierAlreadyExistsException(String.format(SOLDIER_ALREADY_EXISTS, createSoldierDTO.getName()))))
-                .switchIfEmpty(Mono.defer(() -> soldierRepository.save(soldierMapper.toEntity(createSoldierDTO))))
-                .cast(Soldier.class);
+        // The unique name index rejects duplicates, no need for a lookup beforehand
+        return RequestTimings.timed(RequestTimings.MAP, () -> soldierMapper.toEntity(createSoldierDTO))
+                .flatMap(soldierRepository::insert)
+                .onErrorMap(DuplicateKeyException.class, e -> new SoldierAlreadyExistsException(createSoldierDTO.getName()))
+                .doOnSuccess(__ -> soldierCache.invalidate(createSoldierDTO.getName()))
+                .doOnNext(soldier -> {
+                    weaponStatistics.added(soldier.getWeapon());
+                    soldierEventBus.publish(SoldierEvent.created(soldier));
+                });
+    }
+
+    @PutMapping("/{name}")
+    public Mono<ResponseEntity<Soldier>> upsert(@PathVariable String name, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                @RequestBody @Valid UpdateSoldierDTO updateSoldierDTO) {
+        var weapon = updateSoldierDTO.getWeapon();
+        Mono<Soldier> updated;
+        if (ifMatch == null) {
+            updated = soldierRepository.upsertByName(name, weapon);
+        } else {
+            // Only the version that matched is updated, a concurrent write in between fails the precondition too
+            updated = lookup(name)
+                    .filter(soldier -> SoldierETag.matches(ifMatch, soldier))
+                    .flatMap(soldier -> soldierRepository.updateIfVersion(name, soldier.getId(), soldier.getVersion(), weapon))
+                    .switchIfEmpty(Mono.error(() -> new StaleSoldierException(name)));
+        }
+        return updated
+                .doOnSuccess(__ -> {
+                    soldierCache.invalidate(name);
+                    // Whether the soldier was created, or which weapon it carried before, is unknown
+                    weaponStatistics.invalidate();
+                })
+                .doOnNext(soldier -> soldierEventBus.publish(SoldierEvent.updated(soldier)))
+                .map(soldier -> ResponseEntity.ok().eTag(SoldierETag.of(soldier)).body(soldier));
+    }
+
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<SoldierCreationDTO> createAll(@RequestBody Flux<CreateSoldierDTO> createSoldierDTOs) {
+        return soldierIngestService.ingest(createSoldierDTOs)
+                .doOnNext(result -> {
+                    if (result.getStatus() == SoldierCreationDTO.Status.CREATED) {
+                        weaponStatistics.added(result.getSoldier().getWeapon());
+                        soldierEventBus.publish(SoldierEvent.created(result.getSoldier()));
+                    }
+                });
     }
 
     @PostMapping("/random")
     @ResponseStatus(HttpStatus.CREATED)
     public Mono<Soldier> createRandom() {
-        return soldierRepository.save(new Soldier());
+        // Batched inserts are acknowledged together, each caller still gets its own soldier
+        var saved = soldierProperties.getInserts().isBatched()
+                ? soldierInsertBatcher.insert(new Soldier()).transform(RequestTimings.timed(RequestTimings.INSERT))
+                : soldierRepository.save(new Soldier());
+        return saved
+                .doOnNext(soldier -> {
+                    soldierCache.invalidate(soldier.getName());
+                    weaponStatistics.added(soldier.getWeapon());
+                    soldierEventBus.publish(SoldierEvent.created(soldier));
+                });
+    }
+
+    @PostMapping(value = "/random", params = "count",
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    @ResponseStatus(HttpStatus.CREATED)
+    public Flux<SoldierSeedingDTO> seed(@RequestParam int count) {
+        var maxCount = soldierProperties.getSeeding().getMaxCount();
+        if (count < 1 || count > maxCount) {
+            throw new InvalidCountException(String.format(INVALID_COUNT, maxCount, count));
+        }
+        // Followers of the events are not told about every generated soldier
+        return soldierIngestService.seed(count)
+                .doFinally(__ -> {
+                    // A failed or cancelled seed may already have written some soldiers
+                    soldierCache.invalidateAll();
+                    weaponStatistics.invalidate();
+                    soldierNameIndex.invalidate();
+                });
     }
 
     @DeleteMapping("/{name}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public Mono<Void> delete(@PathVariable String name) {
-        return soldierRepository.findByName(name)
-                .switchIfEmpty(Mono.error(new SoldierNotFoundException(String.format(MISSING_SOLDIER, name))))
-                .flatMap(soldierRepository::delete)
-                .then(Mono.empty());
+    public Mono<Void> delete(@PathVariable String name, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (ifMatch == null) {
+            return lookup(name)
+                    .switchIfEmpty(Mono.error(() -> new SoldierNotFoundException(name)))
+                    .flatMap(soldier -> reportDeletion(soldier, soldierRepository.deleteById(soldier.getId())))
+                    .doOnSuccess(__ -> soldierCache.invalidate(name));
+        }
+        // Deleting the entity rather than its identifier only deletes the version that matched
+        return lookup(name)
+                .filter(soldier -> SoldierETag.matches(ifMatch, soldier))
+                .switchIfEmpty(Mono.error(() -> new StaleSoldierException(name)))
+                .flatMap(soldier -> reportDeletion(soldier, soldierRepository.delete(soldier)))
+                .doOnSuccess(__ -> soldierCache.invalidate(name));
     }
 
     @DeleteMapping
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public Mono<Void> deleteAll() {
-        return soldierRepository.findAll()
-                .flatMap(soldierRepository::delete)
-                .then(Mono.empty());
+        return soldierRepository.deleteAll()
+                .doOnSuccess(__ -> {
+                    soldierCache.invalidateAll();
+                    weaponStatistics.cleared();
+                    soldierEventBus.publish(SoldierEvent.purged());
+                });
+    }
+
+    @DeleteMapping(params = "weapon")
+    public Mono<DeletedSoldiersDTO> deleteAllByWeapon(@RequestParam String weapon) {
+        return soldierRepository.deleteByWeapon(weapon)
+                .doOnSuccess(__ -> soldierCache.invalidateAll())
+                .doOnNext(deleted -> {
+                    weaponStatistics.removed(weapon, deleted);
+                    publishPurged(deleted);
+                })
+                .map(DeletedSoldiersDTO::new);
+    }
+
+    @PostMapping("/deletions")
+    public Mono<DeletedSoldiersDTO> deleteAllByName(@RequestBody @Valid DeleteSoldiersDTO deleteSoldiersDTO) {
+        return Flux.fromIterable(deleteSoldiersDTO.getNames())
+                .buffer(soldierProperties.getDeleteBatchSize())
+                .concatMap(soldierRepository::deleteByNameIn)
+                .reduce(0L, Long::sum)
+                .doOnSuccess(__ -> {
+                    deleteSoldiersDTO.getNames().forEach(soldierCache::invalidate);
+                    // The weapons of the deleted soldiers are unknown
+                    weaponStatistics.invalidate();
+                })
+                .doOnNext(this::publishPurged)
+                .map(DeletedSoldiersDTO::new);
+    }
+
+    private Mono<Soldier> lookup(String name) {
+        return soldierNameBatcher.load(name)
+                .transform(RequestTimings.timed(RequestTimings.LOOKUP));
+    }
+
+    private Mono<Void> reportDeletion(Soldier soldier, Mono<Void> deletion) {
+        return deletion
+                .doOnSuccess(__ -> {
+                    weaponStatistics.removed(soldier.getWeapon(), 1);
+                    soldierEventBus.publish(SoldierEvent.deleted(soldier.getId(), soldier));
+                });
+    }
+
+    private void publishPurged(long deleted) {
+        if (deleted > 0) {
+            soldierEventBus.publish(SoldierEvent.purged());
+        }
     }
 }
@@ -0,0 +1,33 @@
+package com.ceihtel.chivalry.controllers;
+
+import com.ceihtel.chivalry.config.SoldierProperties;
+import com.ceihtel.chivalry.exceptions.InvalidPageException;
+import com.ceihtel.chivalry.suggest.SoldierNameIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Name suggestions while typing, answered from memory without querying the database
+ */
+@RestController
+@RequestMapping("/soldiers")
+@RequiredArgsConstructor
+public class SoldierSuggestController {
+    public static final String INVALID_LIMIT = "Limit must be positive, got %d";
+
+    private final SoldierNameIndex soldierNameIndex;
+    private final SoldierProperties soldierProperties;
+
+    @GetMapping("/suggest")
+    public List<String> suggest(@RequestParam(defaultValue = "") String prefix, @RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1) {
+            throw new InvalidPageException(String.format(INVALID_LIMIT, limit));
+        }
+        return soldierNameIndex.suggest(prefix, Math.min(limit, soldierProperties.getSuggest().getMaxLimit()));
+    }
+}
@@ -0,0 +1,34 @@
+package com.ceihtel.chivalry.events;
+
+import com.ceihtel.chivalry.entities.Soldier;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.lang.Nullable;
+
+/**
+ * A change made to the army, deletions of many soldiers at once being a single {@link Type#PURGED} event
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SoldierEvent(Type type, @Nullable String id, @Nullable Soldier soldier) {
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+        PURGED
+    }
+
+    public static SoldierEvent created(Soldier soldier) {
+        return new SoldierEvent(Type.CREATED, soldier.getId(), soldier);
+    }
+
+    public static SoldierEvent updated(Soldier soldier) {
+        return new SoldierEvent(Type.UPDATED, soldier.getId(), soldier);
+    }
+
+    public static SoldierEvent deleted(String id, @Nullable Soldier soldier) {
+        return new SoldierEvent(Type.DELETED, id, soldier);
+    }
+
+    public static SoldierEvent purged() {
+        return new SoldierEvent(Type.PURGED, null, null);
+    }
+}
@@ -0,0 +1,135 @@
+package com.ceihtel.chivalry.events;
+
+import com.ceihtel.chivalry.config.SoldierProperties;
+import com.ceihtel.chivalry.entities.Soldier;
+import com.ceihtel.chivalry.metrics.DeferredMeterBinder;
+import com.ceihtel.chivalry.repositories.SoldierRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import com.mongodb.client.model.changestream.OperationType;
+import org.bson.BsonValue;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+
+/**
+ * Multicasts army changes to every client following them, a client falling behind losing its oldest events
+ */
+@Slf4j
+@Component
+public class SoldierEventBus implements DeferredMeterBinder {
+    private final SoldierRepository soldierRepository;
+    private final SoldierProperties.Events.Source source;
+    private final int bufferSize;
+    private final Duration retryBackoff;
+
+    // Subscribers buffer on their own, the sink never waits on any of them
+    private final Sinks.Many<SoldierEvent> sink = Sinks.many().multicast().directBestEffort();
+    private volatile BsonValue resumeToken;
+    private volatile Disposable changeStream;
+    private volatile Counter droppedEvents;
+
+    public SoldierEventBus(SoldierRepository soldierRepository, SoldierProperties soldierProperties) {
+        var events = soldierProperties.getEvents();
+        this.soldierRepository = soldierRepository;
+        this.source = events.getSource();
+        this.bufferSize = events.getBufferSize();
+        this.retryBackoff = events.getRetryBackoff();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (source != SoldierProperties.Events.Source.CHANGE_STREAM) {
+            return;
+        }
+        changeStream = Flux.defer(() -> soldierRepository.watch(resumeToken))
+                .doOnNext(this::track)
+                .mapNotNull(SoldierEventBus::toEvent)
+                .doOnError(e -> log.warn("Soldier change stream failed, reopening it", e))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, retryBackoff).transientErrors(true))
+                // The stream ends when the collection is dropped, follow the new one
+                .repeatWhen(completions -> completions.delayElements(retryBackoff))
+                .subscribe(this::emit);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (changeStream != null) {
+            changeStream.dispose();
+        }
+    }
+
+    /**
+     * Publishes a change made by this instance, unless events come from the change stream
+     */
+    public void publish(SoldierEvent event) {
+        if (source == SoldierProperties.Events.Source.API) {
+            emit(event);
+        }
+    }
+
+    public Flux<SoldierEvent> subscribe() {
+        return sink.asFlux()
+                .onBackpressureBuffer(bufferSize, this::onDropped, BufferOverflowStrategy.DROP_OLDEST);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        droppedEvents = Counter.builder("chivalry.soldiers.events.dropped")
+                .description("Events dropped from the buffer of a client falling behind")
+                .register(registry);
+    }
+
+    private void emit(SoldierEvent event) {
+        // Writes are served concurrently, while a sink only accepts one emission at a time
+        synchronized (sink) {
+            sink.tryEmitNext(event);
+        }
+    }
+
+    private void onDropped(SoldierEvent event) {
+        if (droppedEvents != null) {
+            droppedEvents.increment();
+        }
+    }
+
+    private void track(ChangeStreamEvent<Soldier> event) {
+        // Resuming right after an invalidation is not possible, the stream is reopened from now on instead
+        var raw = event.getRaw();
+        resumeToken = raw == null || event.getOperationType() == OperationType.INVALIDATE ? null : raw.getResumeToken();
+    }
+
+    private static SoldierEvent toEvent(ChangeStreamEvent<Soldier> event) {
+        var operationType = event.getOperationType();
+        var soldier = event.getBody();
+        if (operationType == null) {
+            return null;
+        }
+        return switch (operationType) {
+            // No document for updates of soldiers deleted since, their deletion follows
+            case INSERT -> soldier == null ? null : SoldierEvent.created(soldier);
+            case UPDATE, REPLACE -> soldier == null ? null : SoldierEvent.updated(soldier);
+            case DELETE -> deleted(event);
+            case DROP, DROP_DATABASE -> SoldierEvent.purged();
+            default -> null;
+        };
+    }
+
+    private static SoldierEvent deleted(ChangeStreamEvent<Soldier> event) {
+        var raw = event.getRaw();
+        if (raw == null || raw.getDocumentKey() == null) {
+            return null;
+        }
+        var id = raw.getDocumentKey().get("_id");
+        return SoldierEvent.deleted(id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue(), null);
+    }
+}
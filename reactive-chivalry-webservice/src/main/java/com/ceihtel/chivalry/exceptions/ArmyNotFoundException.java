@@ -0,0 +1,18 @@
+package com.ceihtel.chivalry.exceptions;
+
+public class ArmyNotFoundException extends ChivalryException {
+    private final String id;
+
+    public ArmyNotFoundException(String id) {
+        this.id = id;
+    }
+
+    public static String message(String id) {
+        return "Could not find an army with identifier '" + id + "'";
+    }
+
+    @Override
+    public String getMessage() {
+        return message(id);
+    }
+}
@@ -0,0 +1,14 @@
+package com.ceihtel.chivalry.exceptions;
+
+/**
+ * Error answered to the client, without a stack trace and with a message built only once sent
+ */
+public abstract class ChivalryException extends RuntimeException {
+    protected ChivalryException() {
+        super(null, null, false, false);
+    }
+
+    protected ChivalryException(String message) {
+        super(message, null, false, false);
+    }
+}
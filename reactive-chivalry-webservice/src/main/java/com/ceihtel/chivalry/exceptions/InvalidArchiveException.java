@@ -0,0 +1,7 @@
+package com.ceihtel.chivalry.exceptions;
+
+public class InvalidArchiveException extends ChivalryException {
+    public InvalidArchiveException(String message) {
+        super(message);
+    }
+}
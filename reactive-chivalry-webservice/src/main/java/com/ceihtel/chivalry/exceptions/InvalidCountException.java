@@ -0,0 +1,7 @@
+package com.ceihtel.chivalry.exceptions;
+
+public class InvalidCountException extends ChivalryException {
+    public InvalidCountException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.ceihtel.chivalry.exceptions;
+
+public class InvalidFieldsException extends ChivalryException {
+    public InvalidFieldsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.ceihtel.chivalry.exceptions;
+
+public class InvalidPageException extends ChivalryException {
+    public InvalidPageException(String message) {
+        super(message);
+    }
+}
@@ -1,7 +1,18 @@
 package com.ceihtel.chivalry.exceptions;
 
-public class SoldierAlreadyExistsException extends RuntimeException {
-    public SoldierAlreadyExistsException(String message) {
-        super(message);
+public class SoldierAlreadyExistsException extends ChivalryException {
+    private final String name;
+
+    public SoldierAlreadyExistsException(String name) {
+        this.name = name;
+    }
+
+    public static String message(String name) {
+        return "A soldier called '" + name + "' already exists";
+    }
+
+    @Override
+    public String getMessage() {
+        return message(name);
     }
 }
@@ -1,7 +1,18 @@
 package com.ceihtel.chivalry.exceptions;
 
-public class SoldierNotFoundException extends RuntimeException {
-    public SoldierNotFoundException(String message) {
-        super(message);
+public class SoldierNotFoundException extends ChivalryException {
+    private final String name;
+
+    public SoldierNotFoundException(String name) {
+        this.name = name;
+    }
+
+    public static String message(String name) {
+        return "Could not find a soldier called '" + name + "'";
+    }
+
+    @Override
+    public String getMessage() {
+        return message(name);
     }
 }
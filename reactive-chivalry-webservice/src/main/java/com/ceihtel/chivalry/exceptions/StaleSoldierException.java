@@ -0,0 +1,18 @@
+package com.ceihtel.chivalry.exceptions;
+
+public class StaleSoldierException extends ChivalryException {
+    private final String name;
+
+    public StaleSoldierException(String name) {
+        this.name = name;
+    }
+
+    public static String message(String name) {
+        return "The soldier called '" + name + "' does not match the given ETag";
+    }
+
+    @Override
+    public String getMessage() {
+        return message(name);
+    }
+}
@@ -0,0 +1,58 @@
+package com.ceihtel.chivalry.generators;
+
+import com.ceihtel.chivalry.entities.Soldier;
+
+import java.util.SplittableRandom;
+
+/**
+ * Generates soldiers with unique names and weighted weapons, not thread-safe
+ */
+public class SoldierGenerator {
+    private static final String[] GIVEN_NAMES = {
+            "Adhémar", "Aliénor", "Baudouin", "Bohémond", "Blanche", "Géraud", "Godefroy", "Guillaume", "Hugues",
+            "Isabeau", "Mathilde", "Raymond", "Roger", "Tancrède", "Thibaut", "Yolande"
+    };
+    private static final String[] WEAPONS = {"Sword", "Spear", "Longbow", "Crossbow", "Polearm", "Shortsword", "Mace", "Warhammer"};
+    private static final int[] WEAPON_WEIGHTS = {30, 20, 15, 10, 10, 8, 5, 2};
+    private static final int[] CUMULATIVE_WEIGHTS = cumulate(WEAPON_WEIGHTS);
+
+    private final SplittableRandom random;
+    private final String runId;
+    private long counter;
+
+    public SoldierGenerator() {
+        this(new SplittableRandom());
+    }
+
+    public SoldierGenerator(SplittableRandom random) {
+        this.random = random;
+        // Fixed length, so that the counter that follows cannot make two runs collide
+        this.runId = Long.toString(random.nextLong(36L * 36 * 36 * 36 * 36, 36L * 36 * 36 * 36 * 36 * 36), 36);
+    }
+
+    public Soldier next() {
+        var soldier = new Soldier();
+        soldier.setName(GIVEN_NAMES[random.nextInt(GIVEN_NAMES.length)] + ' ' + runId + '-' + Long.toString(counter++, 36));
+        soldier.setWeapon(nextWeapon());
+        return soldier;
+    }
+
+    private String nextWeapon() {
+        var draw = random.nextInt(CUMULATIVE_WEIGHTS[CUMULATIVE_WEIGHTS.length - 1]);
+        var i = 0;
+        while (draw >= CUMULATIVE_WEIGHTS[i]) {
+            i++;
+        }
+        return WEAPONS[i];
+    }
+
+    private static int[] cumulate(int[] weights) {
+        var cumulative = new int[weights.length];
+        var sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += weights[i];
+            cumulative[i] = sum;
+        }
+        return cumulative;
+    }
+}
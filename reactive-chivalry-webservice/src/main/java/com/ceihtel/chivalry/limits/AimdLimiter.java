@@ -0,0 +1,68 @@
+package com.ceihtel.chivalry.limits;
+
+import com.ceihtel.chivalry.config.SoldierProperties;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit adjusted by additive increase and multiplicative decrease from latency and failures
+ */
+public class AimdLimiter {
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private final AtomicInteger limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public AimdLimiter(SoldierProperties.Limiter.Group group) {
+        this.minLimit = group.getMinLimit();
+        this.maxLimit = group.getMaxLimit();
+        this.latencyThresholdNanos = group.getLatencyThreshold().toNanos();
+        this.backoffRatio = group.getBackoffRatio();
+        this.limit = new AtomicInteger(Math.max(minLimit, Math.min(maxLimit, group.getInitialLimit())));
+    }
+
+    /**
+     * Takes a slot for a request if the limit allows it, to be given back with one of the {@code release} methods
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            var current = inFlight.get();
+            if (current >= limit.get()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Gives back the slot of a request that completed after {@code latencyNanos}, and adjusts the limit from it
+     */
+    public void release(long latencyNanos, boolean failed) {
+        var current = inFlight.getAndDecrement();
+        if (failed || latencyNanos > latencyThresholdNanos) {
+            limit.updateAndGet(value -> Math.max(minLimit, (int) (value * backoffRatio)));
+        } else if (current * 2 >= limit.get()) {
+            // An idle backend says nothing about how much more it could take
+            limit.updateAndGet(value -> Math.min(maxLimit, value + 1));
+        }
+    }
+
+    /**
+     * Gives back the slot of a request that was cancelled, which says nothing about the backend
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return limit.get();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,163 @@
+package com.ceihtel.chivalry.limits;
+
+import com.ceihtel.chivalry.config.SoldierProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Answers 503 to requests beyond the adaptive concurrency limit of their group, reads or writes
+ */
+@Component
+public class ConcurrencyLimitFilter implements WebFilter, Ordered, MeterBinder {
+    public static final String OVERLOADED = "The service is overloaded, try again later";
+
+    private static final String SOLDIERS_PATH = "/soldiers";
+    private static final Set<String> UNLIMITED_PATHS = Set.of(SOLDIERS_PATH + "/events", SOLDIERS_PATH + "/bulk",
+            SOLDIERS_PATH + "/export", SOLDIERS_PATH + "/import");
+    private static final byte[] OVERLOADED_BODY = ("{\"error\":\"" + OVERLOADED + "\"}").getBytes(StandardCharsets.UTF_8);
+
+    private final boolean enabled;
+    private final String retryAfter;
+    private final Map<RouteGroup, AimdLimiter> limiters;
+    private volatile Map<RouteGroup, Counter> rejections = Map.of();
+
+    enum RouteGroup {
+        READS,
+        WRITES
+    }
+
+    public ConcurrencyLimitFilter(SoldierProperties soldierProperties) {
+        var limiter = soldierProperties.getLimiter();
+        this.enabled = limiter.isEnabled();
+        this.retryAfter = String.valueOf(Math.max(1, limiter.getRetryAfter().toSeconds()));
+        this.limiters = Map.of(
+                RouteGroup.READS, new AimdLimiter(limiter.getReads()),
+                RouteGroup.WRITES, new AimdLimiter(limiter.getWrites()));
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        var group = enabled ? getGroup(exchange) : null;
+        if (group == null) {
+            return chain.filter(exchange);
+        }
+
+        var limiter = limiters.get(group);
+        if (!limiter.tryAcquire()) {
+            var rejected = rejections.get(group);
+            if (rejected != null) {
+                rejected.increment();
+            }
+            return reject(exchange);
+        }
+
+        // Only server failures mean overload, a burst of bad requests must not shrink the limit
+        var start = System.nanoTime();
+        return chain.filter(exchange)
+                .doOnSuccess(__ -> limiter.release(System.nanoTime() - start, isServerFailure(exchange.getResponse().getStatusCode())))
+                .doOnError(e -> limiter.release(System.nanoTime() - start, isServerFailure(e)))
+                .doOnCancel(limiter::release);
+    }
+
+    @Override
+    public int getOrder() {
+        // Right after the metrics filter, so that rejected requests are still timed
+        return Ordered.HIGHEST_PRECEDENCE + 10;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        limiters.forEach((group, limiter) -> {
+            var tag = group.name().toLowerCase();
+            Gauge.builder("chivalry.limiter.limit", limiter, AimdLimiter::getLimit)
+                    .description("Number of requests currently allowed in flight at once")
+                    .tag("group", tag)
+                    .register(registry);
+            Gauge.builder("chivalry.limiter.inflight", limiter, AimdLimiter::getInFlight)
+                    .description("Number of requests in flight")
+                    .tag("group", tag)
+                    .register(registry);
+        });
+        rejections = Map.of(
+                RouteGroup.READS, rejectionCounter(registry, RouteGroup.READS),
+                RouteGroup.WRITES, rejectionCounter(registry, RouteGroup.WRITES));
+    }
+
+    AimdLimiter getLimiter(RouteGroup group) {
+        return limiters.get(group);
+    }
+
+    /**
+     * Whether the request lasts for as long as there are soldiers to go through
+     */
+    public static boolean isLongLived(ServerHttpRequest request) {
+        var path = request.getPath().pathWithinApplication().value();
+        if (UNLIMITED_PATHS.contains(path)) {
+            return true;
+        }
+
+        var method = request.getMethod();
+        if (method == HttpMethod.POST && path.equals(SOLDIERS_PATH + "/random") && request.getQueryParams().containsKey("count")) {
+            // Seeding runs for as long as it takes to write all the soldiers
+            return true;
+        }
+        if (method == HttpMethod.GET || method == HttpMethod.HEAD) {
+            var accept = request.getHeaders().getAccept();
+            return accept.contains(MediaType.APPLICATION_NDJSON) || accept.contains(MediaType.TEXT_EVENT_STREAM);
+        }
+        return false;
+    }
+
+    private static RouteGroup getGroup(ServerWebExchange exchange) {
+        var request = exchange.getRequest();
+        if (!request.getPath().pathWithinApplication().value().startsWith(SOLDIERS_PATH) || isLongLived(request)) {
+            return null;
+        }
+
+        var method = request.getMethod();
+        return method == HttpMethod.GET || method == HttpMethod.HEAD ? RouteGroup.READS : RouteGroup.WRITES;
+    }
+
+    private static boolean isServerFailure(HttpStatus status) {
+        return status != null && status.is5xxServerError();
+    }
+
+    private static boolean isServerFailure(Throwable error) {
+        // Timeouts and unexpected errors end up as a 5xx, client errors such as a body failing validation as a 4xx
+        return !(error instanceof ResponseStatusException responseStatusException)
+                || responseStatusException.getStatus().is5xxServerError();
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange) {
+        var response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, retryAfter);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(OVERLOADED_BODY)));
+    }
+
+    private static Counter rejectionCounter(MeterRegistry registry, RouteGroup group) {
+        return Counter.builder("chivalry.limiter.rejected")
+                .description("Requests turned away for being beyond the concurrency limit")
+                .tag("group", group.name().toLowerCase())
+                .register(registry);
+    }
+}
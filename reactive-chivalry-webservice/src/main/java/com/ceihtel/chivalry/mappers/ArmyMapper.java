@@ -0,0 +1,11 @@
+package com.ceihtel.chivalry.mappers;
+
+import com.ceihtel.chivalry.entities.Army;
+import com.ceihtel.chivalry.requests.CreateArmyDTO;
+import org.mapstruct.Mapper;
+
+@Mapper(componentModel = "spring")
+public interface ArmyMapper {
+
+    Army toEntity(CreateArmyDTO createArmyDTO);
+}
@@ -0,0 +1,58 @@
+package com.ceihtel.chivalry.metrics;
+
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.BsonDocument;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Records how many documents each MongoDB command returned or affected. The registry is looked up on the first
+ * command, as the MongoDB client is created before it.
+ */
+public class MongoDocumentsCommandListener implements CommandListener {
+    private final ObjectProvider<MeterRegistry> meterRegistryProvider;
+    private volatile MeterRegistry meterRegistry;
+
+    public MongoDocumentsCommandListener(ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        this.meterRegistryProvider = meterRegistryProvider;
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        var meterRegistry = meterRegistry();
+        var documents = countDocuments(event.getCommandName(), event.getResponse());
+        if (meterRegistry != null && documents >= 0) {
+            DistributionSummary.builder("chivalry.mongo.documents")
+                    .description("Number of documents returned or affected by a MongoDB command")
+                    .tag("command", event.getCommandName())
+                    .register(meterRegistry)
+                    .record(documents);
+        }
+    }
+
+    private MeterRegistry meterRegistry() {
+        var registry = meterRegistry;
+        if (registry == null) {
+            registry = meterRegistry = meterRegistryProvider.getIfAvailable();
+        }
+        return registry;
+    }
+
+    private static int countDocuments(String commandName, BsonDocument response) {
+        return switch (commandName) {
+            case "find", "aggregate" -> batchSize(response, "firstBatch");
+            case "getMore" -> batchSize(response, "nextBatch");
+            case "insert", "update", "delete" -> response.containsKey("n") ? response.getNumber("n").intValue() : -1;
+            case "findAndModify" -> response.isDocument("value") ? 1 : 0;
+            default -> -1;
+        };
+    }
+
+    private static int batchSize(BsonDocument response, String batch) {
+        return response.isDocument("cursor") && response.getDocument("cursor").isArray(batch)
+                ? response.getDocument("cursor").getArray(batch).size()
+                : -1;
+    }
+}
@@ -0,0 +1,34 @@
+package com.ceihtel.chivalry.pagination;
+
+import com.ceihtel.chivalry.exceptions.InvalidPageException;
+import org.bson.types.ObjectId;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token handed to clients paging through the army. It wraps the identifier of the last soldier
+ * of a page, so that the next page can resume with a range scan on the {@code _id} index.
+ */
+public final class SoldierCursor {
+    public static final String INVALID_CURSOR = "Invalid page cursor '%s'";
+
+    private SoldierCursor() {
+    }
+
+    public static String encode(String soldierId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(soldierId.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public static String decode(String cursor) {
+        try {
+            var soldierId = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            if (ObjectId.isValid(soldierId)) {
+                return soldierId;
+            }
+        } catch (IllegalArgumentException e) {
+            // Not even Base64, reported below like any other malformed cursor
+        }
+        throw new InvalidPageException(String.format(INVALID_CURSOR, cursor));
+    }
+}
@@ -0,0 +1,56 @@
+package com.ceihtel.chivalry.projections;
+
+import com.ceihtel.chivalry.entities.Soldier;
+import com.ceihtel.chivalry.exceptions.InvalidFieldsException;
+import com.ceihtel.chivalry.repositories.SoldierField;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Translates the {@code fields} query parameter, and writes soldiers with only those fields
+ */
+public final class SoldierProjection {
+    public static final String UNKNOWN_FIELD = "Unknown soldier field '%s', expected some of %s";
+    public static final String NO_FIELDS = "At least one soldier field must be selected";
+
+    private static final Map<String, SoldierField> FIELDS_BY_PROPERTY = Arrays.stream(SoldierField.values())
+            .collect(Collectors.toUnmodifiableMap(SoldierField::getProperty, field -> field));
+
+    private SoldierProjection() {
+    }
+
+    /**
+     * Parses a comma-separated list of soldier properties, such as {@code name,weapon}
+     */
+    public static Set<SoldierField> parse(String fields) {
+        var selected = EnumSet.noneOf(SoldierField.class);
+        for (var property : fields.split(",")) {
+            property = property.strip();
+            if (property.isEmpty()) {
+                continue;
+            }
+            var field = FIELDS_BY_PROPERTY.get(property);
+            if (field == null) {
+                throw new InvalidFieldsException(String.format(UNKNOWN_FIELD, property, FIELDS_BY_PROPERTY.keySet().stream().sorted().toList()));
+            }
+            selected.add(field);
+        }
+        if (selected.isEmpty()) {
+            throw new InvalidFieldsException(NO_FIELDS);
+        }
+        return selected;
+    }
+
+    public static Map<String, Object> toMap(Soldier soldier, Set<SoldierField> fields) {
+        var projection = new LinkedHashMap<String, Object>(fields.size() * 2);
+        for (var field : fields) {
+            projection.put(field.getProperty(), field.valueOf(soldier));
+        }
+        return projection;
+    }
+}
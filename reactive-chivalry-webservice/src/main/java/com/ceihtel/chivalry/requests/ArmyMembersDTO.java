@@ -0,0 +1,19 @@
+package com.ceihtel.chivalry.requests;
+
+import lombok.Data;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+/**
+ * Names of the soldiers to enlist in an army and of those to discharge from it, either list may be empty
+ */
+@Data
+public class ArmyMembersDTO {
+    @NotNull
+    private List<@NotBlank String> enlist = List.of();
+
+    @NotNull
+    private List<@NotBlank String> discharge = List.of();
+}
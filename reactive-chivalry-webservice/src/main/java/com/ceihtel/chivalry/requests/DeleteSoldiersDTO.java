@@ -0,0 +1,13 @@
+package com.ceihtel.chivalry.requests;
+
+import lombok.Data;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotEmpty;
+import java.util.List;
+
+@Data
+public class DeleteSoldiersDTO {
+    @NotEmpty
+    private List<@NotBlank String> names;
+}
@@ -0,0 +1,11 @@
+package com.ceihtel.chivalry.requests;
+
+import lombok.Data;
+
+import javax.validation.constraints.NotBlank;
+
+@Data
+public class UpdateSoldierDTO {
+    @NotBlank
+    private String weapon;
+}
@@ -0,0 +1,13 @@
+package com.ceihtel.chivalry.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArmyMembersChangeDTO {
+    private long enlisted;
+    private long discharged;
+}
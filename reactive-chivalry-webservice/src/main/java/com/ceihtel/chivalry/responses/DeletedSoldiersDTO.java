@@ -0,0 +1,12 @@
+package com.ceihtel.chivalry.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeletedSoldiersDTO {
+    private long deleted;
+}
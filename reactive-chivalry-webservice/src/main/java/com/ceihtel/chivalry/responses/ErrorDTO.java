@@ -0,0 +1,11 @@
+package com.ceihtel.chivalry.responses;
+
+import lombok.Value;
+
+/**
+ * Immutable, so that errors with a fixed message can share a single body
+ */
+@Value
+public class ErrorDTO {
+    String error;
+}
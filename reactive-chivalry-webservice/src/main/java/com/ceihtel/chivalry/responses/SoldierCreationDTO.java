@@ -0,0 +1,36 @@
+package com.ceihtel.chivalry.responses;
+
+import com.ceihtel.chivalry.entities.Soldier;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SoldierCreationDTO {
+    public enum Status {
+        CREATED,
+        DUPLICATE,
+        INVALID
+    }
+
+    private String name;
+    private Status status;
+    private Soldier soldier;
+    private String error;
+
+    public static SoldierCreationDTO created(Soldier soldier) {
+        return new SoldierCreationDTO(soldier.getName(), Status.CREATED, soldier, null);
+    }
+
+    public static SoldierCreationDTO duplicate(Soldier soldier, String error) {
+        return new SoldierCreationDTO(soldier.getName(), Status.DUPLICATE, null, error);
+    }
+
+    public static SoldierCreationDTO invalid(String name, String error) {
+        return new SoldierCreationDTO(name, Status.INVALID, null, error);
+    }
+}
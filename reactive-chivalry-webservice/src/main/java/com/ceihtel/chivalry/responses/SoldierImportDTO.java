@@ -0,0 +1,13 @@
+package com.ceihtel.chivalry.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SoldierImportDTO {
+    private long inserted;
+    private long duplicates;
+}
@@ -0,0 +1,19 @@
+package com.ceihtel.chivalry.responses;
+
+import com.ceihtel.chivalry.entities.Soldier;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SoldierPageDTO {
+    private List<Soldier> soldiers;
+    /**
+     * Cursor to send back as {@code after} to get the next page, null on the last page
+     */
+    private String next;
+}
@@ -0,0 +1,19 @@
+package com.ceihtel.chivalry.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Progress of a seeding, the last one reported being complete
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SoldierSeedingDTO {
+    private long requested;
+    private long inserted;
+    private long duplicates;
+    private long elapsedMillis;
+    private boolean complete;
+}
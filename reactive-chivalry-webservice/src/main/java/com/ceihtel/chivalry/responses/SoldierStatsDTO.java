@@ -0,0 +1,16 @@
+package com.ceihtel.chivalry.responses;
+
+import com.ceihtel.chivalry.repositories.WeaponCount;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SoldierStatsDTO {
+    private long total;
+    private List<WeaponCount> weapons;
+}
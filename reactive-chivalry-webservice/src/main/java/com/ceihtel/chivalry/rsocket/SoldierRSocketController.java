@@ -0,0 +1,47 @@
+package com.ceihtel.chivalry.rsocket;
+
+import com.ceihtel.chivalry.controllers.SoldierController;
+import com.ceihtel.chivalry.entities.Soldier;
+import com.ceihtel.chivalry.requests.CreateSoldierDTO;
+import com.ceihtel.chivalry.responses.SoldierCreationDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpEntity;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * RSocket routes for internal callers with CBOR payloads, served by {@link SoldierController}
+ */
+@Controller
+@MessageMapping("soldiers")
+@RequiredArgsConstructor
+public class SoldierRSocketController {
+    private final SoldierController soldierController;
+
+    /**
+     * Request-response, the soldier with the given name
+     */
+    @MessageMapping("get.{name}")
+    public Mono<Soldier> getByName(@DestinationVariable String name) {
+        return soldierController.getByName(name).map(HttpEntity::getBody);
+    }
+
+    /**
+     * Request-stream, the whole army read from a cursor at the pace of the requester
+     */
+    @MessageMapping("all")
+    public Flux<Soldier> streamAll() {
+        return soldierController.streamAll(null, null);
+    }
+
+    /**
+     * Request-channel, one creation result per soldier sent, in the order they were sent
+     */
+    @MessageMapping("bulk")
+    public Flux<SoldierCreationDTO> createAll(Flux<CreateSoldierDTO> createSoldierDTOs) {
+        return soldierController.createAll(createSoldierDTOs);
+    }
+}
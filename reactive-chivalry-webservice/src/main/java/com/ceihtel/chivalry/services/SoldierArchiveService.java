@@ -0,0 +1,192 @@
+package com.ceihtel.chivalry.services;
+
+import com.ceihtel.chivalry.config.SoldierProperties;
+import com.ceihtel.chivalry.entities.Soldier;
+import com.ceihtel.chivalry.exceptions.InvalidArchiveException;
+import com.ceihtel.chivalry.repositories.BulkInsertResult;
+import com.ceihtel.chivalry.repositories.SoldierRepository;
+import com.ceihtel.chivalry.responses.SoldierImportDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Exports and imports the army as gzip-compressed NDJSON, a batch at a time
+ */
+@Service
+@RequiredArgsConstructor
+public class SoldierArchiveService {
+    public static final String INVALID_ARCHIVE = "The archive is not gzip-compressed NDJSON";
+    public static final String INVALID_SOLDIER = "Line %d is not a soldier";
+    public static final String INVALID_AFTER_ID = "Cannot export after '%s', it is not a soldier identifier";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // Request chunks taken ahead of decompression, the pipe holding at most one buffer more
+    private static final int RECEIVE_PREFETCH = 4;
+    private static final byte NEWLINE = '\n';
+
+    private final SoldierRepository soldierRepository;
+    private final ObjectMapper objectMapper;
+    private final SoldierProperties soldierProperties;
+
+    /**
+     * Exports the soldiers in identifier order, right after {@code afterId} when given
+     */
+    public Flux<DataBuffer> export(@Nullable String afterId, DataBufferFactory bufferFactory) {
+        if (afterId != null && !ObjectId.isValid(afterId)) {
+            // Thrown right away, before the response is committed as an archive
+            throw new InvalidArchiveException(String.format(INVALID_AFTER_ID, afterId));
+        }
+        var archive = soldierProperties.getArchive();
+        return Flux.using(() -> new GzipLineWriter(archive.getCompressionLevel()),
+                writer -> soldierRepository.streamAfter(afterId, archive.getBatchSize())
+                        .buffer(archive.getBatchSize())
+                        .map(writer::write)
+                        .concatWith(Mono.fromSupplier(writer::finish))
+                        .map(bufferFactory::wrap),
+                SoldierArchiveService::closeQuietly);
+    }
+
+    /**
+     * Imports the soldiers of an export, counting those already there as duplicates
+     */
+    public Mono<SoldierImportDTO> importAll(Flux<DataBuffer> body) {
+        var archive = soldierProperties.getArchive();
+        return Mono.defer(() -> {
+            // Decompression blocks, it runs on its own thread, fed through a pipe by the thread receiving the body
+            var input = new PipedInputStream(BUFFER_SIZE);
+            PipedOutputStream output;
+            try {
+                output = new PipedOutputStream(input);
+            } catch (IOException e) {
+                return Mono.error(e);
+            }
+
+            var receive = body
+                    .publishOn(Schedulers.boundedElastic(), RECEIVE_PREFETCH)
+                    .doOnNext(buffer -> receive(buffer, output))
+                    .doFinally(__ -> closeQuietly(output))
+                    .then(Mono.<BulkInsertResult>empty());
+
+            var insert = Flux.using(() -> new BufferedReader(new InputStreamReader(new GZIPInputStream(input, BUFFER_SIZE), StandardCharsets.UTF_8)),
+                            reader -> Flux.fromStream(reader.lines()).index().filter(line -> !line.getT2().isBlank())
+                                    .map(line -> read(line.getT1() + 1, line.getT2())),
+                            SoldierArchiveService::closeQuietly)
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .buffer(archive.getBatchSize())
+                    .flatMap(soldierRepository::insertUnordered, archive.getImportConcurrency());
+
+            return Flux.merge(receive, insert)
+                    .reduce(new SoldierImportDTO(), (imported, result) -> {
+                        imported.setInserted(imported.getInserted() + result.inserted().size());
+                        imported.setDuplicates(imported.getDuplicates() + result.duplicates().size());
+                        return imported;
+                    })
+                    .onErrorMap(e -> isCorrupt(e) || isCorrupt(e.getCause()), e -> new InvalidArchiveException(INVALID_ARCHIVE));
+        });
+    }
+
+    private static void receive(DataBuffer buffer, PipedOutputStream output) {
+        try (var in = buffer.asInputStream(true)) {
+            in.transferTo(output);
+            // Wakes the reader up right away, rather than on its next poll of the pipe
+            output.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Soldier read(long lineNumber, String line) {
+        try {
+            return objectMapper.readValue(line, Soldier.class);
+        } catch (JsonProcessingException e) {
+            throw new InvalidArchiveException(String.format(INVALID_SOLDIER, lineNumber));
+        }
+    }
+
+    private static boolean isCorrupt(@Nullable Throwable e) {
+        // Not compressed at all, or cut short
+        return e instanceof ZipException || e instanceof EOFException;
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // Nothing left to release
+        }
+    }
+
+    /**
+     * Compresses soldiers as NDJSON, handing out what was compressed so far after each batch
+     */
+    private class GzipLineWriter implements Closeable {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(BUFFER_SIZE);
+        private final GZIPOutputStream gzip;
+
+        GzipLineWriter(int level) throws IOException {
+            // Sync flushes end every batch on a byte boundary, so that it can be decompressed before the next one
+            gzip = new GZIPOutputStream(bytes, BUFFER_SIZE, true) {
+                {
+                    def.setLevel(level);
+                }
+            };
+        }
+
+        byte[] write(List<Soldier> soldiers) {
+            try {
+                for (var soldier : soldiers) {
+                    gzip.write(objectMapper.writeValueAsBytes(soldier));
+                    gzip.write(NEWLINE);
+                }
+                gzip.flush();
+                return drain();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        byte[] finish() {
+            try {
+                gzip.finish();
+                return drain();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            gzip.close();
+        }
+
+        private byte[] drain() {
+            var drained = bytes.toByteArray();
+            bytes.reset();
+            return drained;
+        }
+    }
+}
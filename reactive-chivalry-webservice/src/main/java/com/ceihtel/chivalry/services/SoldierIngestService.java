@@ -0,0 +1,117 @@
+package com.ceihtel.chivalry.services;
+
+import com.ceihtel.chivalry.cache.SoldierCache;
+import com.ceihtel.chivalry.config.SoldierProperties;
+import com.ceihtel.chivalry.entities.Soldier;
+import com.ceihtel.chivalry.exceptions.SoldierAlreadyExistsException;
+import com.ceihtel.chivalry.generators.SoldierGenerator;
+import com.ceihtel.chivalry.mappers.SoldierMapper;
+import com.ceihtel.chivalry.repositories.SoldierRepository;
+import com.ceihtel.chivalry.requests.CreateSoldierDTO;
+import com.ceihtel.chivalry.responses.SoldierCreationDTO;
+import com.ceihtel.chivalry.responses.SoldierSeedingDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Creates soldiers in unordered bulk inserts, relying on the unique name index to detect duplicates
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SoldierIngestService {
+    private final SoldierRepository soldierRepository;
+    private final SoldierMapper soldierMapper;
+    private final SoldierProperties soldierProperties;
+    private final Validator validator;
+    private final SoldierCache soldierCache;
+
+    /**
+     * Returns one result per request, in the order the requests came in
+     */
+    public Flux<SoldierCreationDTO> ingest(Flux<CreateSoldierDTO> createSoldierDTOs) {
+        return createSoldierDTOs
+                .buffer(soldierProperties.getBulkBatchSize())
+                .flatMapSequential(this::ingestBatch, soldierProperties.getBulkConcurrency());
+    }
+
+    /**
+     * Writes {@code count} generated soldiers, reporting progress as it goes
+     */
+    public Flux<SoldierSeedingDTO> seed(int count) {
+        var seeding = soldierProperties.getSeeding();
+        return Flux.defer(() -> {
+            var generator = new SoldierGenerator();
+            var inserted = new AtomicLong();
+            var duplicates = new AtomicLong();
+            var start = System.nanoTime();
+            Function<Boolean, SoldierSeedingDTO> progress = complete -> new SoldierSeedingDTO(count, inserted.get(), duplicates.get(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), complete);
+
+            return Flux.range(0, count)
+                    .map(__ -> generator.next())
+                    .buffer(seeding.getBatchSize())
+                    .flatMap(soldierRepository::insertUnordered, seeding.getConcurrency())
+                    .doOnNext(result -> {
+                        inserted.addAndGet(result.inserted().size());
+                        duplicates.addAndGet(result.duplicates().size());
+                    })
+                    .sample(seeding.getProgressInterval())
+                    .map(__ -> progress.apply(false))
+                    .concatWith(Mono.fromSupplier(() -> progress.apply(true)))
+                    .doOnComplete(() -> log.info("Seeded {} soldiers in {} ms, {} duplicates", inserted.get(),
+                            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), duplicates.get()));
+        });
+    }
+
+    private Flux<SoldierCreationDTO> ingestBatch(List<CreateSoldierDTO> batch) {
+        var results = new SoldierCreationDTO[batch.size()];
+        var soldiers = new ArrayList<Soldier>(batch.size());
+        var positions = new IdentityHashMap<Soldier, Integer>(batch.size());
+
+        for (int i = 0; i < batch.size(); i++) {
+            var createSoldierDTO = batch.get(i);
+            var violations = validator.validate(createSoldierDTO);
+            if (violations.isEmpty()) {
+                var soldier = soldierMapper.toEntity(createSoldierDTO);
+                soldiers.add(soldier);
+                positions.put(soldier, i);
+            } else {
+                results[i] = SoldierCreationDTO.invalid(createSoldierDTO.getName(), describe(violations));
+            }
+        }
+
+        return soldierRepository.insertUnordered(soldiers)
+                .flatMapIterable(result -> {
+                    result.inserted().forEach(soldier -> {
+                        soldierCache.invalidate(soldier.getName());
+                        results[positions.get(soldier)] = SoldierCreationDTO.created(soldier);
+                    });
+                    result.duplicates().forEach(soldier -> results[positions.get(soldier)] = SoldierCreationDTO.duplicate(soldier,
+                            SoldierAlreadyExistsException.message(soldier.getName())));
+                    return Arrays.asList(results);
+                });
+    }
+
+    private static String describe(Collection<ConstraintViolation<CreateSoldierDTO>> violations) {
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+}
@@ -0,0 +1,123 @@
+package com.ceihtel.chivalry.stats;
+
+import com.ceihtel.chivalry.config.SoldierProperties;
+import com.ceihtel.chivalry.repositories.SoldierRepository;
+import com.ceihtel.chivalry.repositories.WeaponCount;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Number of soldiers carrying each weapon, aggregated on every read or served from counters
+ */
+@Slf4j
+@Component
+public class WeaponStatistics {
+    private final SoldierRepository soldierRepository;
+    private final boolean materialized;
+    private final long reconcileIntervalNanos;
+
+    // Keyed by optional weapon, unarmed soldiers are counted too
+    private final ConcurrentMap<Optional<String>, LongAdder> counters = new ConcurrentHashMap<>();
+    private volatile boolean stale = true;
+    private volatile long reconciledAt;
+
+    public WeaponStatistics(SoldierRepository soldierRepository, SoldierProperties soldierProperties) {
+        this.soldierRepository = soldierRepository;
+        this.materialized = soldierProperties.getStats().isMaterialized();
+        this.reconcileIntervalNanos = soldierProperties.getStats().getReconcileInterval().toNanos();
+    }
+
+    /**
+     * Returns the soldiers count of each weapon carried by at least one soldier, in weapon order
+     */
+    public Flux<WeaponCount> getCounts() {
+        if (!materialized) {
+            return soldierRepository.countByWeapon();
+        }
+        if (stale || System.nanoTime() - reconciledAt > reconcileIntervalNanos) {
+            return reconcile();
+        }
+        return Flux.fromIterable(snapshot());
+    }
+
+    /**
+     * Reports a soldier that was created
+     */
+    public void added(@Nullable String weapon) {
+        if (materialized) {
+            counter(weapon).increment();
+        }
+    }
+
+    /**
+     * Reports {@code count} soldiers carrying {@code weapon} that were deleted
+     */
+    public void removed(@Nullable String weapon, long count) {
+        if (materialized) {
+            counter(weapon).add(-count);
+        }
+    }
+
+    /**
+     * Reports that the whole army was deleted
+     */
+    public void cleared() {
+        counters.clear();
+    }
+
+    /**
+     * Reports writes whose effect on weapon counts is unknown
+     */
+    public void invalidate() {
+        stale = true;
+    }
+
+    private Flux<WeaponCount> reconcile() {
+        return soldierRepository.countByWeapon()
+                .collectList()
+                .doOnNext(this::reconcile)
+                .flatMapIterable(counts -> counts);
+    }
+
+    private synchronized void reconcile(List<WeaponCount> counts) {
+        var actual = new HashMap<Optional<String>, Long>(counts.size() * 2);
+        counts.forEach(count -> actual.put(Optional.ofNullable(count.weapon()), count.count()));
+
+        if (!stale) {
+            var drift = new HashMap<Optional<String>, Long>();
+            counters.forEach((weapon, counter) -> drift.put(weapon, counter.sum()));
+            actual.forEach((weapon, count) -> drift.merge(weapon, -count, Long::sum));
+            drift.values().removeIf(difference -> difference == 0);
+            if (!drift.isEmpty()) {
+                log.warn("Weapon counters drifted from the army by {}, correcting them", drift);
+            }
+        }
+
+        counters.clear();
+        actual.forEach((weapon, count) -> counter(weapon.orElse(null)).add(count));
+        stale = false;
+        reconciledAt = System.nanoTime();
+    }
+
+    private List<WeaponCount> snapshot() {
+        return counters.entrySet().stream()
+                .map(entry -> new WeaponCount(entry.getKey().orElse(null), entry.getValue().sum()))
+                .filter(count -> count.count() > 0)
+                .sorted(Comparator.comparing(WeaponCount::weapon, Comparator.nullsFirst(Comparator.naturalOrder())))
+                .toList();
+    }
+
+    private LongAdder counter(@Nullable String weapon) {
+        return counters.computeIfAbsent(Optional.ofNullable(weapon), __ -> new LongAdder());
+    }
+}
@@ -0,0 +1,422 @@
+package com.ceihtel.chivalry.suggest;
+
+import com.ceihtel.chivalry.config.SoldierProperties;
+import com.ceihtel.chivalry.entities.Soldier;
+import com.ceihtel.chivalry.events.SoldierEvent;
+import com.ceihtel.chivalry.events.SoldierEventBus;
+import com.ceihtel.chivalry.metrics.DeferredMeterBinder;
+import com.ceihtel.chivalry.repositories.SoldierField;
+import com.ceihtel.chivalry.repositories.SoldierRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Soldier names by case-insensitive prefix, answered from a sorted array and a small delta of recent changes
+ */
+@Slf4j
+@Component
+public class SoldierNameIndex implements DeferredMeterBinder {
+    // Case-insensitive order keeps the names sharing a prefix next to each other, whatever their case
+    static final Comparator<String> ORDER = String.CASE_INSENSITIVE_ORDER.thenComparing(Comparator.naturalOrder());
+
+    private static final int MIN_COMPACTION_THRESHOLD = 1024;
+
+    private final SoldierRepository soldierRepository;
+    private final SoldierEventBus soldierEventBus;
+    private final boolean enabled;
+    private final Duration refreshDelay;
+    private final long rebuildIntervalNanos;
+
+    // Writers hold the read lock while changing the live delta, layers are only swapped under the write lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile Layers layers = new Layers(new String[0], 0, null, new Delta());
+    // Changes made while the array is being rebuilt, on top of which the rebuilt array is installed
+    private Delta recording;
+    private volatile boolean stale = true;
+    private volatile long builtAt;
+    private Disposable events;
+    private Disposable maintenance;
+
+    public SoldierNameIndex(SoldierRepository soldierRepository, SoldierEventBus soldierEventBus, SoldierProperties soldierProperties) {
+        var suggest = soldierProperties.getSuggest();
+        this.soldierRepository = soldierRepository;
+        this.soldierEventBus = soldierEventBus;
+        this.enabled = suggest.isEnabled();
+        this.refreshDelay = suggest.getRefreshDelay();
+        this.rebuildIntervalNanos = suggest.getRebuildInterval().toNanos();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        events = soldierEventBus.subscribe().subscribe(this::apply);
+        // Rebuilds and compactions run one at a time, and never on the thread of a request
+        maintenance = Flux.interval(Duration.ZERO, refreshDelay)
+                .onBackpressureDrop()
+                .concatMap(__ -> maintain()
+                        .onErrorResume(e -> {
+                            log.warn("Could not refresh the soldier name index", e);
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (events != null) {
+            events.dispose();
+        }
+        if (maintenance != null) {
+            maintenance.dispose();
+        }
+    }
+
+    /**
+     * Returns at most {@code limit} names starting with {@code prefix}, regardless of case, in case-insensitive order
+     */
+    public List<String> suggest(String prefix, int limit) {
+        var current = layers;
+        var suggestions = new ArrayList<String>(Math.min(limit, 16));
+        var candidates = new MergingIterator(current.from(prefix));
+        String previous = null;
+        while (suggestions.size() < limit && candidates.hasNext()) {
+            var name = candidates.next();
+            if (!name.regionMatches(true, 0, prefix, 0, prefix.length())) {
+                break;
+            }
+            if (!name.equals(previous) && current.contains(name)) {
+                suggestions.add(name);
+            }
+            previous = name;
+        }
+        return suggestions;
+    }
+
+    public void added(String name) {
+        change(delta -> delta.add(name));
+    }
+
+    public void removed(String name) {
+        change(delta -> delta.remove(name));
+    }
+
+    /**
+     * Reports changes whose effect on names is unknown, the index is rebuilt from the collection shortly after
+     */
+    public void invalidate() {
+        stale = true;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("chivalry.soldiers.suggest.names", this, index -> index.layers.size())
+                .description("Number of names held by the name index, deleted ones included until the next compaction")
+                .register(registry);
+        Gauge.builder("chivalry.soldiers.suggest.memory", this, index -> index.layers.estimateBytes())
+                .description("Estimated heap used by the name index")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    /**
+     * Rebuilds the index from the collection, as done on startup
+     */
+    public Mono<Void> rebuild() {
+        return Mono.defer(() -> {
+            lock.writeLock().lock();
+            try {
+                recording = new Delta();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            stale = false;
+            return fetch();
+        });
+    }
+
+    private Mono<Void> fetch() {
+        return soldierRepository.findAllProjected(EnumSet.of(SoldierField.NAME))
+                .mapNotNull(Soldier::getName)
+                .collectList()
+                .doOnNext(names -> {
+                    var sorted = names.toArray(String[]::new);
+                    Arrays.sort(sorted, ORDER);
+                    lock.writeLock().lock();
+                    try {
+                        layers = new Layers(sorted, estimateBytes(sorted), null, recording);
+                        recording = null;
+                    } finally {
+                        lock.writeLock().unlock();
+                    }
+                    builtAt = System.nanoTime();
+                    log.debug("Soldier name index rebuilt with {} names", sorted.length);
+                })
+                .doOnError(e -> {
+                    // Tried again on the next refresh
+                    stale = true;
+                    lock.writeLock().lock();
+                    try {
+                        recording = null;
+                    } finally {
+                        lock.writeLock().unlock();
+                    }
+                })
+                .then();
+    }
+
+    /**
+     * Merges the delta into the array, changes made meanwhile going to a new delta
+     */
+    void compact() {
+        Layers frozen;
+        lock.writeLock().lock();
+        try {
+            var current = layers;
+            frozen = new Layers(current.base, current.baseBytes, current.live, new Delta());
+            layers = frozen;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        var merged = new ArrayList<String>(frozen.base.length + frozen.frozen.added.size());
+        var candidates = new MergingIterator(List.of(Arrays.asList(frozen.base).iterator(), frozen.frozen.added.iterator()));
+        String previous = null;
+        while (candidates.hasNext()) {
+            var name = candidates.next();
+            if (!name.equals(previous) && frozen.contains(name)) {
+                merged.add(name);
+            }
+            previous = name;
+        }
+        var base = merged.toArray(String[]::new);
+        var baseBytes = estimateBytes(base);
+
+        lock.writeLock().lock();
+        try {
+            layers = new Layers(base, baseBytes, null, layers.live);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Mono<Void> maintain() {
+        if (stale || System.nanoTime() - builtAt > rebuildIntervalNanos) {
+            return rebuild();
+        }
+        var current = layers;
+        if (current.live.size() > Math.max(MIN_COMPACTION_THRESHOLD, current.base.length / 16)) {
+            return Mono.fromRunnable(this::compact);
+        }
+        return Mono.empty();
+    }
+
+    void apply(SoldierEvent event) {
+        var soldier = event.soldier();
+        switch (event.type()) {
+            case CREATED, UPDATED -> {
+                // Upserts may create the soldier, names never change otherwise
+                if (soldier != null && soldier.getName() != null) {
+                    added(soldier.getName());
+                }
+            }
+            case DELETED -> {
+                // Deletions read from the change stream only carry the identifier
+                if (soldier != null && soldier.getName() != null) {
+                    removed(soldier.getName());
+                } else {
+                    invalidate();
+                }
+            }
+            case PURGED -> invalidate();
+        }
+    }
+
+    private void change(Consumer<Delta> change) {
+        lock.readLock().lock();
+        try {
+            change.accept(layers.live);
+            if (recording != null) {
+                change.accept(recording);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static long estimateBytes(String[] names) {
+        // Array of compressed references, then each string and its bytes, aligned on 8 bytes
+        long bytes = align(16 + 4L * names.length);
+        for (var name : names) {
+            bytes += estimateBytes(name);
+        }
+        return bytes;
+    }
+
+    private static long estimateBytes(String name) {
+        var latin1 = name.chars().allMatch(c -> c <= 0xFF);
+        return 24 + align(16 + (long) name.length() * (latin1 ? 1 : 2));
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    /**
+     * Names created and deleted since the array below was built, the last change of a name winning
+     */
+    private static class Delta {
+        // Skip list node and index overhead, roughly
+        private static final int ENTRY_BYTES = 48;
+
+        private final ConcurrentSkipListSet<String> added = new ConcurrentSkipListSet<>(ORDER);
+        private final Set<String> removed = ConcurrentHashMap.newKeySet();
+
+        void add(String name) {
+            added.add(name);
+            removed.remove(name);
+        }
+
+        void remove(String name) {
+            removed.add(name);
+            added.remove(name);
+        }
+
+        /**
+         * Whether the name was added, removed, or neither since the array was built
+         */
+        @Nullable
+        Boolean contains(String name) {
+            if (added.contains(name)) {
+                return true;
+            }
+            return removed.contains(name) ? false : null;
+        }
+
+        Iterator<String> from(String prefix) {
+            // Same as for the array, names equal to the prefix but for case may sort before it
+            var from = prefix;
+            String lower;
+            while ((lower = added.lower(from)) != null && String.CASE_INSENSITIVE_ORDER.compare(lower, prefix) == 0) {
+                from = lower;
+            }
+            return added.tailSet(from).iterator();
+        }
+
+        int size() {
+            return added.size() + removed.size();
+        }
+
+        long estimateBytes() {
+            long bytes = 0;
+            for (var name : added) {
+                bytes += ENTRY_BYTES + SoldierNameIndex.estimateBytes(name);
+            }
+            for (var name : removed) {
+                bytes += ENTRY_BYTES + SoldierNameIndex.estimateBytes(name);
+            }
+            return bytes;
+        }
+    }
+
+    /**
+     * The sorted array, the delta being merged into it if a compaction is running, and the delta taking changes
+     */
+    private record Layers(String[] base, long baseBytes, @Nullable Delta frozen, Delta live) {
+        boolean contains(String name) {
+            var contained = live.contains(name);
+            if (contained == null && frozen != null) {
+                contained = frozen.contains(name);
+            }
+            // Names in neither delta are still there if the array has them
+            return contained != null ? contained : Arrays.binarySearch(base, name, ORDER) >= 0;
+        }
+
+        List<Iterator<String>> from(String prefix) {
+            var iterators = new ArrayList<Iterator<String>>(3);
+            var start = Arrays.binarySearch(base, prefix, String.CASE_INSENSITIVE_ORDER);
+            // Several names may equal the prefix but for case, start from the first of them
+            start = start < 0 ? -start - 1 : start;
+            while (start > 0 && String.CASE_INSENSITIVE_ORDER.compare(base[start - 1], prefix) == 0) {
+                start--;
+            }
+            iterators.add(Arrays.asList(base).subList(start, base.length).iterator());
+            if (frozen != null) {
+                iterators.add(frozen.from(prefix));
+            }
+            iterators.add(live.from(prefix));
+            return iterators;
+        }
+
+        int size() {
+            return base.length + (frozen == null ? 0 : frozen.added.size()) + live.added.size();
+        }
+
+        long estimateBytes() {
+            return baseBytes + (frozen == null ? 0 : frozen.estimateBytes()) + live.estimateBytes();
+        }
+    }
+
+    /**
+     * Merges sorted iterators into one, names found in several of them coming out next to each other
+     */
+    private static class MergingIterator implements Iterator<String> {
+        private final List<Iterator<String>> iterators;
+        private final String[] heads;
+
+        MergingIterator(List<Iterator<String>> iterators) {
+            this.iterators = iterators;
+            this.heads = new String[iterators.size()];
+            for (int i = 0; i < heads.length; i++) {
+                heads[i] = iterators.get(i).hasNext() ? iterators.get(i).next() : null;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            for (var head : heads) {
+                if (head != null) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public String next() {
+            var smallest = -1;
+            for (int i = 0; i < heads.length; i++) {
+                if (heads[i] != null && (smallest < 0 || ORDER.compare(heads[i], heads[smallest]) < 0)) {
+                    smallest = i;
+                }
+            }
+            var next = heads[smallest];
+            var iterator = iterators.get(smallest);
+            heads[smallest] = iterator.hasNext() ? iterator.next() : null;
+            return next;
+        }
+    }
+}
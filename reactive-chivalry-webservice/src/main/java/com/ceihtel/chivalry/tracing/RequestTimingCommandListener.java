@@ -0,0 +1,84 @@
+package com.ceihtel.chivalry.tracing;
+
+import com.mongodb.RequestContext;
+import com.mongodb.event.CommandEvent;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandSucceededEvent;
+import com.mongodb.reactivestreams.client.ReactiveContextProvider;
+import reactor.core.CoreSubscriber;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Records every MongoDB round trip of a request as a stage named after its command
+ */
+public class RequestTimingCommandListener implements CommandListener {
+    /**
+     * Exposes the Reactor context of each subscriber to the driver, read-only
+     */
+    public static ReactiveContextProvider contextProvider() {
+        return subscriber -> subscriber instanceof CoreSubscriber<?> coreSubscriber
+                ? new ReactorRequestContext(coreSubscriber.currentContext())
+                : new ReactorRequestContext(Context.empty());
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        record(event, event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        record(event, event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    private static void record(CommandEvent event, long nanos) {
+        var requestContext = event.getRequestContext();
+        RequestTimings timings = requestContext == null ? null : requestContext.getOrDefault(RequestTimings.class, null);
+        if (timings != null) {
+            timings.record(RequestTimings.MONGO_PREFIX + event.getCommandName(), nanos);
+        }
+    }
+
+    private record ReactorRequestContext(ContextView context) implements RequestContext {
+        @Override
+        public <T> T get(Object key) {
+            return context.get(key);
+        }
+
+        @Override
+        public boolean hasKey(Object key) {
+            return context.hasKey(key);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return context.isEmpty();
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            throw new UnsupportedOperationException("The Reactor context cannot be changed from the driver");
+        }
+
+        @Override
+        public void delete(Object key) {
+            throw new UnsupportedOperationException("The Reactor context cannot be changed from the driver");
+        }
+
+        @Override
+        public int size() {
+            return context.size();
+        }
+
+        @Override
+        public Stream<Map.Entry<Object, Object>> stream() {
+            return context.stream();
+        }
+    }
+}
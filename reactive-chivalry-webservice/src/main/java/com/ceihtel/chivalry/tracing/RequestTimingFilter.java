@@ -0,0 +1,108 @@
+package com.ceihtel.chivalry.tracing;
+
+import com.ceihtel.chivalry.config.SoldierProperties;
+import com.ceihtel.chivalry.limits.ConcurrencyLimitFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Times every request stage by stage, and reports those slower than the threshold
+ */
+@Slf4j
+@Component
+public class RequestTimingFilter implements WebFilter, Ordered, MeterBinder {
+    private final boolean enabled;
+    private final long slowThresholdNanos;
+    private final SlowRequestLog slowRequests;
+    private volatile Counter slowCounter;
+
+    public RequestTimingFilter(SoldierProperties soldierProperties) {
+        var tracing = soldierProperties.getTracing();
+        this.enabled = tracing.isEnabled();
+        this.slowThresholdNanos = tracing.getSlowThreshold().toNanos();
+        this.slowRequests = new SlowRequestLog(Math.max(1, tracing.getSlowRequestsKept()));
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!enabled || ConcurrencyLimitFilter.isLongLived(exchange.getRequest())) {
+            return chain.filter(exchange);
+        }
+        var timings = new RequestTimings();
+        return chain.filter(exchange)
+                // Before the completion reaches the server, which ends the response, and after the body is encoded
+                .doOnTerminate(() -> complete(exchange, timings))
+                .doOnCancel(() -> complete(exchange, timings))
+                .contextWrite(Context.of(RequestTimings.class, timings));
+    }
+
+    @Override
+    public int getOrder() {
+        // Between the metrics filter and the concurrency limits, so that rejected requests are timed too
+        return Ordered.HIGHEST_PRECEDENCE + 5;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        slowCounter = Counter.builder("chivalry.requests.slow")
+                .description("Requests that took longer than the slow request threshold")
+                .register(registry);
+    }
+
+    /**
+     * Returns the most recent slow requests, most recent first
+     */
+    public List<SlowRequest> getSlowRequests() {
+        return slowRequests.recent();
+    }
+
+    public void clearSlowRequests() {
+        slowRequests.clear();
+    }
+
+    private void complete(ServerWebExchange exchange, RequestTimings timings) {
+        var elapsed = timings.elapsedNanos();
+        if (elapsed < slowThresholdNanos) {
+            return;
+        }
+
+        var request = exchange.getRequest();
+        var status = exchange.getResponse().getRawStatusCode();
+        var slowRequest = new SlowRequest(Instant.now(), request.getMethodValue(), request.getPath().value(),
+                status == null ? HttpStatus.OK.value() : status, RequestTimings.toMillis(elapsed), timings.breakdown(elapsed));
+        slowRequests.add(slowRequest);
+        if (slowCounter != null) {
+            slowCounter.increment();
+        }
+        log.warn("Slow request {} {} answered {} in {} ms: {}", slowRequest.method(), slowRequest.path(), slowRequest.status(),
+                format(slowRequest.millis()), describe(slowRequest.stages()));
+    }
+
+    private static String describe(Map<String, SlowRequest.StageTiming> stages) {
+        return stages.entrySet().stream()
+                .map(stage -> stage.getValue().count() > 1
+                        ? stage.getKey() + "=" + format(stage.getValue().millis()) + "ms (x" + stage.getValue().count() + ")"
+                        : stage.getKey() + "=" + format(stage.getValue().millis()) + "ms")
+                .collect(Collectors.joining(" "));
+    }
+
+    private static String format(double millis) {
+        return String.format(Locale.ROOT, "%.3f", millis);
+    }
+}
@@ -0,0 +1,131 @@
+package com.ceihtel.chivalry.tracing;
+
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Time spent by a request in each of its stages, carried in the Reactor context
+ */
+public final class RequestTimings {
+    /**
+     * Waiting for the request body to come in
+     */
+    public static final String RECEIVE = "receive";
+    public static final String DECODE = "decode";
+    public static final String VALIDATE = "validate";
+    public static final String MAP = "map";
+    /**
+     * Lookups by name, batched with those of other requests, whose MongoDB commands are not told apart
+     */
+    public static final String LOOKUP = "lookup";
+    /**
+     * Inserts batched with those of other requests, whose MongoDB commands are not told apart
+     */
+    public static final String INSERT = "insert";
+    public static final String ENCODE = "encode";
+    /**
+     * Time not accounted for by any stage
+     */
+    public static final String OTHER = "other";
+    public static final String MONGO_PREFIX = "mongo.";
+
+    // Only bound while a decoded body is handed over, for the validation that follows on the same thread
+    private static final ThreadLocal<RequestTimings> HANDING_OVER = new ThreadLocal<>();
+
+    private final long start = System.nanoTime();
+    private final Map<String, Stage> stages = new LinkedHashMap<>(8);
+
+    /**
+     * Returns the timings of the request being served, if it is timed
+     */
+    @Nullable
+    public static RequestTimings from(ContextView context) {
+        return context.getOrDefault(RequestTimings.class, null);
+    }
+
+    /**
+     * Times the given publisher as a stage, from subscription to termination
+     */
+    public static <T> Function<Mono<T>, Mono<T>> timed(String stage) {
+        return mono -> Mono.deferContextual(context -> {
+            var timings = from(context);
+            if (timings == null) {
+                return mono;
+            }
+            var start = System.nanoTime();
+            // Recorded before the signal goes on, so that the stage is in by the time the request completes
+            Runnable record = () -> timings.record(stage, System.nanoTime() - start);
+            return mono.doOnTerminate(record).doOnCancel(record);
+        });
+    }
+
+    /**
+     * Times a blocking-free computation as a stage
+     */
+    public static <T> Mono<T> timed(String stage, Supplier<T> supplier) {
+        return Mono.deferContextual(context -> {
+            var timings = from(context);
+            if (timings == null) {
+                return Mono.fromSupplier(supplier);
+            }
+            var start = System.nanoTime();
+            var value = supplier.get();
+            timings.record(stage, System.nanoTime() - start);
+            return Mono.justOrEmpty(value);
+        });
+    }
+
+    static void bind(RequestTimings timings) {
+        HANDING_OVER.set(timings);
+    }
+
+    static void unbind() {
+        HANDING_OVER.remove();
+    }
+
+    @Nullable
+    static RequestTimings bound() {
+        return HANDING_OVER.get();
+    }
+
+    public synchronized void record(String stage, long nanos) {
+        var timing = stages.computeIfAbsent(stage, __ -> new Stage());
+        timing.count++;
+        timing.nanos += nanos;
+    }
+
+    public long elapsedNanos() {
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Returns the duration of each stage in milliseconds, followed by the time not accounted for
+     */
+    synchronized Map<String, SlowRequest.StageTiming> breakdown(long elapsedNanos) {
+        var breakdown = new LinkedHashMap<String, SlowRequest.StageTiming>(stages.size() + 1);
+        var accounted = 0L;
+        for (var entry : stages.entrySet()) {
+            var stage = entry.getValue();
+            breakdown.put(entry.getKey(), new SlowRequest.StageTiming(stage.count, toMillis(stage.nanos)));
+            accounted += stage.nanos;
+        }
+        breakdown.put(OTHER, new SlowRequest.StageTiming(1, toMillis(Math.max(0, elapsedNanos - accounted))));
+        return breakdown;
+    }
+
+    static double toMillis(long nanos) {
+        return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private static class Stage {
+        private int count;
+        private long nanos;
+    }
+}
@@ -0,0 +1,13 @@
+package com.ceihtel.chivalry.tracing;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * A request that took longer than the slow request threshold, with the time it spent in each stage
+ */
+public record SlowRequest(Instant timestamp, String method, String path, int status, double millis,
+                          Map<String, StageTiming> stages) {
+    public record StageTiming(int count, double millis) {
+    }
+}
@@ -0,0 +1,43 @@
+package com.ceihtel.chivalry.tracing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The most recent slow requests, older ones being overwritten once full
+ */
+class SlowRequestLog {
+    private final AtomicReferenceArray<SlowRequest> slots;
+    private final AtomicLong written = new AtomicLong();
+
+    SlowRequestLog(int capacity) {
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    void add(SlowRequest slowRequest) {
+        slots.set((int) (written.getAndIncrement() % slots.length()), slowRequest);
+    }
+
+    /**
+     * Returns the slow requests kept, most recent first
+     */
+    List<SlowRequest> recent() {
+        var end = written.get();
+        var recent = new ArrayList<SlowRequest>((int) Math.min(end, slots.length()));
+        for (var i = end - 1; i >= Math.max(0, end - slots.length()); i--) {
+            var slowRequest = slots.get((int) (i % slots.length()));
+            if (slowRequest != null) {
+                recent.add(slowRequest);
+            }
+        }
+        return recent;
+    }
+
+    void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, null);
+        }
+    }
+}
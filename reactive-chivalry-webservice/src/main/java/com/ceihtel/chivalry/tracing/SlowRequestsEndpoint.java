@@ -0,0 +1,29 @@
+package com.ceihtel.chivalry.tracing;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Recent slow requests with their breakdown by stage, at {@code /actuator/slowrequests}
+ */
+@Component
+@Endpoint(id = "slowrequests")
+@RequiredArgsConstructor
+public class SlowRequestsEndpoint {
+    private final RequestTimingFilter requestTimingFilter;
+
+    @ReadOperation
+    public List<SlowRequest> slowRequests() {
+        return requestTimingFilter.getSlowRequests();
+    }
+
+    @DeleteOperation
+    public void clear() {
+        requestTimingFilter.clearSlowRequests();
+    }
+}
@@ -0,0 +1,44 @@
+package com.ceihtel.chivalry.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.lang.Nullable;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Decodes JSON like its parent, timing the receiving and the parsing of single bodies
+ */
+public class TimedJackson2JsonDecoder extends Jackson2JsonDecoder {
+    public TimedJackson2JsonDecoder(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    public Mono<Object> decodeToMono(Publisher<DataBuffer> input, ResolvableType elementType, @Nullable MimeType mimeType,
+                                     @Nullable Map<String, Object> hints) {
+        return Mono.deferContextual(context -> {
+            var timings = RequestTimings.from(context);
+            if (timings == null) {
+                return super.decodeToMono(input, elementType, mimeType, hints);
+            }
+            return DataBufferUtils.join(input, getMaxInMemorySize())
+                    .transform(RequestTimings.timed(RequestTimings.RECEIVE))
+                    .flatMap(buffer -> {
+                        var start = System.nanoTime();
+                        var value = decode(buffer, elementType, mimeType, hints);
+                        timings.record(RequestTimings.DECODE, System.nanoTime() - start);
+                        // Validation follows on this thread as soon as the body is handed over, it has no context
+                        return Mono.justOrEmpty(value)
+                                .doOnSubscribe(__ -> RequestTimings.bind(timings))
+                                .doFinally(__ -> RequestTimings.unbind());
+                    });
+        });
+    }
+}
@@ -0,0 +1,45 @@
+package com.ceihtel.chivalry.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.lang.Nullable;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Encodes JSON like its parent, timing the encoding of single values
+ */
+public class TimedJackson2JsonEncoder extends Jackson2JsonEncoder {
+    public TimedJackson2JsonEncoder(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory, ResolvableType elementType,
+                                   @Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
+        if (!(inputStream instanceof Mono)) {
+            return super.encode(inputStream, bufferFactory, elementType, mimeType, hints);
+        }
+        return Flux.deferContextual(context -> {
+            var timings = RequestTimings.from(context);
+            if (timings == null) {
+                return super.encode(inputStream, bufferFactory, elementType, mimeType, hints);
+            }
+            return Mono.from(inputStream)
+                    .map(value -> {
+                        var start = System.nanoTime();
+                        var buffer = encodeValue(value, bufferFactory, elementType, mimeType, hints);
+                        timings.record(RequestTimings.ENCODE, System.nanoTime() - start);
+                        return buffer;
+                    })
+                    .flux();
+        });
+    }
+}
@@ -0,0 +1,35 @@
+package com.ceihtel.chivalry.tracing;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.validation.Errors;
+import org.springframework.validation.SmartValidator;
+
+/**
+ * Validates like the given validator, timing bodies decoded by {@link TimedJackson2JsonDecoder}
+ */
+@RequiredArgsConstructor
+public class TimedValidator implements SmartValidator {
+    private final SmartValidator delegate;
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return delegate.supports(clazz);
+    }
+
+    @Override
+    public void validate(Object target, Errors errors) {
+        validate(target, errors, new Object[0]);
+    }
+
+    @Override
+    public void validate(Object target, Errors errors, Object... validationHints) {
+        var timings = RequestTimings.bound();
+        if (timings == null) {
+            delegate.validate(target, errors, validationHints);
+            return;
+        }
+        var start = System.nanoTime();
+        delegate.validate(target, errors, validationHints);
+        timings.record(RequestTimings.VALIDATE, System.nanoTime() - start);
+    }
+}
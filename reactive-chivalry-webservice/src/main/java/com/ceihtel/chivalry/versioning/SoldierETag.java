@@ -0,0 +1,31 @@
+package com.ceihtel.chivalry.versioning;
+
+import com.ceihtel.chivalry.entities.Soldier;
+
+/**
+ * Entity tag of a soldier, made of its identifier and version
+ */
+public final class SoldierETag {
+    private static final String ANY = "*";
+
+    private SoldierETag() {
+    }
+
+    public static String of(Soldier soldier) {
+        return "\"" + soldier.getId() + ":" + soldier.getVersion() + "\"";
+    }
+
+    /**
+     * Whether an {@code If-Match} header is satisfied by the soldier, weak tags never matching
+     */
+    public static boolean matches(String ifMatch, Soldier soldier) {
+        var etag = of(soldier);
+        for (var tag : ifMatch.split(",")) {
+            tag = tag.strip();
+            if (tag.equals(ANY) || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
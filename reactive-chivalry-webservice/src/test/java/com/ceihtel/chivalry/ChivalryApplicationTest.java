@@ -0,0 +1,27 @@
+package com.ceihtel.chivalry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts the whole application on the MongoDB profile, the client only connects on its first command
+ */
+@SpringBootTest(properties = {"spring.rsocket.server.port=0", "server.port=0",
+        "spring.data.mongodb.uri=mongodb://localhost:1/chivalry?serverSelectionTimeoutMS=100"})
+class ChivalryApplicationTest {
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void contextLoads() {
+        assertThat(meterRegistry.find("cache.size").tag("cache", "soldiers").gauge()).isNotNull();
+        assertThat(meterRegistry.find("chivalry.soldiers.lookup.batch.size").summary()).isNotNull();
+        assertThat(meterRegistry.find("chivalry.soldiers.insert.pending").gauge()).isNotNull();
+        assertThat(meterRegistry.find("chivalry.soldiers.events.dropped").counter()).isNotNull();
+        assertThat(meterRegistry.find("chivalry.soldiers.suggest.names").gauge()).isNotNull();
+    }
+}
@@ -0,0 +1,169 @@
+package com.ceihtel.chivalry.controllers;
+
+import com.ceihtel.chivalry.cache.SoldierCache;
+import com.ceihtel.chivalry.config.SoldierProperties;
+import com.ceihtel.chivalry.entities.Army;
+import com.ceihtel.chivalry.entities.Soldier;
+import com.ceihtel.chivalry.loaders.SoldierNameBatcher;
+import com.ceihtel.chivalry.mappers.ArmyMapper;
+import com.ceihtel.chivalry.mappers.ArmyMapperImpl;
+import com.ceihtel.chivalry.repositories.ArmyRepository;
+import com.ceihtel.chivalry.repositories.ArmyWithSoldiers;
+import com.ceihtel.chivalry.repositories.SoldierRepository;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+
+@WebFluxTest(ArmyController.class)
+class ArmyControllerTest {
+    @TestConfiguration
+    @Import(SoldierCache.class)
+    static class ArmyControllerTestConfiguration {
+        @Bean
+        public ArmyMapper armyMapper() {
+            return new ArmyMapperImpl();
+        }
+
+        @Bean
+        public SoldierProperties soldierProperties() {
+            var soldierProperties = new SoldierProperties();
+            soldierProperties.setMembershipBatchSize(2);
+            return soldierProperties;
+        }
+
+        @Bean(destroyMethod = "close")
+        public SoldierNameBatcher soldierNameBatcher(SoldierRepository soldierRepository) {
+            return new SoldierNameBatcher(soldierRepository, Duration.ofMillis(1), 100, 1000, 4, Duration.ofSeconds(5));
+        }
+    }
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ArmyRepository armyRepository;
+
+    @MockBean
+    private SoldierRepository soldierRepository;
+
+    private static Soldier getSoldier(String name, String weapon, String armyId) {
+        var soldier = new Soldier();
+        soldier.setId(UUID.randomUUID().toString());
+        soldier.setName(name);
+        soldier.setWeapon(weapon);
+        soldier.setArmyId(armyId);
+        return soldier;
+    }
+
+    @Test
+    void shouldCreateArmy() {
+        Mockito.when(armyRepository.insert(any(Army.class))).thenAnswer(invocation -> {
+            Army army = invocation.getArgument(0);
+            army.setId(new ObjectId().toHexString());
+            return Mono.just(army);
+        });
+
+        webTestClient
+                .post().uri("/armies")
+                .bodyValue(Map.of("name", "Host of Toulouse"))
+                .exchange()
+                .expectStatus()
+                .isCreated()
+                .expectBody()
+                .jsonPath("$.id").exists()
+                .jsonPath("$.name").isEqualTo("Host of Toulouse");
+    }
+
+    @Test
+    void shouldGetArmyWithSoldiers() {
+        var id = new ObjectId().toHexString();
+        var army = new ArmyWithSoldiers();
+        army.setId(id);
+        army.setName("Host of Toulouse");
+        army.setSoldiers(List.of(getSoldier("Raymond", "Sword", id), getSoldier("Adhémar", "Mace", id)));
+        Mockito.when(armyRepository.findWithSoldiers(id)).thenReturn(Mono.just(army));
+
+        webTestClient
+                .get().uri("/armies/{id}", id)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("Host of Toulouse")
+                .jsonPath("$.soldiers.length()").isEqualTo(2)
+                .jsonPath("$.soldiers[0].armyId").isEqualTo(id);
+
+        Mockito.verify(armyRepository).findWithSoldiers(id);
+        Mockito.verifyNoInteractions(soldierRepository);
+    }
+
+    @Test
+    void shouldNotFindMissingArmy() {
+        Mockito.when(armyRepository.findWithSoldiers("nowhere")).thenReturn(Mono.empty());
+
+        webTestClient
+                .get().uri("/armies/nowhere")
+                .exchange()
+                .expectStatus()
+                .isNotFound()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Could not find an army with identifier 'nowhere'");
+    }
+
+    @Test
+    void shouldChangeMembersInBatches() {
+        var id = new ObjectId().toHexString();
+        Mockito.when(armyRepository.existsById(id)).thenReturn(Mono.just(true));
+        Mockito.when(soldierRepository.enlist(Mockito.eq(id), Mockito.anyCollection()))
+                .thenAnswer(invocation -> Mono.just((long) invocation.<List<String>>getArgument(1).size()));
+        Mockito.when(soldierRepository.discharge(Mockito.eq(id), Mockito.anyCollection())).thenReturn(Mono.just(1L));
+
+        webTestClient
+                .post().uri("/armies/{id}/members", id)
+                .bodyValue(Map.of("enlist", List.of("Raymond", "Adhémar", "Roger"), "discharge", List.of("Géraud")))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$.enlisted").isEqualTo(3)
+                .jsonPath("$.discharged").isEqualTo(1);
+
+        // Batches of two names
+        Mockito.verify(soldierRepository).enlist(id, List.of("Raymond", "Adhémar"));
+        Mockito.verify(soldierRepository).enlist(id, List.of("Roger"));
+        Mockito.verify(soldierRepository).discharge(id, List.of("Géraud"));
+        Mockito.verifyNoMoreInteractions(soldierRepository);
+    }
+
+    @Test
+    void shouldDischargeSoldiersOfDeletedArmy() {
+        var id = new ObjectId().toHexString();
+        Mockito.when(armyRepository.existsById(id)).thenReturn(Mono.just(true));
+        Mockito.when(soldierRepository.discharge(id, null)).thenReturn(Mono.just(2L));
+        Mockito.when(armyRepository.deleteById(id)).thenReturn(Mono.empty());
+
+        webTestClient
+                .delete().uri("/armies/{id}", id)
+                .exchange()
+                .expectStatus()
+                .isNoContent();
+
+        Mockito.verify(soldierRepository).discharge(id, null);
+        Mockito.verify(armyRepository).deleteById(id);
+    }
+}
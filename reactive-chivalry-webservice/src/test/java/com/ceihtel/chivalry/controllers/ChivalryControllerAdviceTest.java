@@ -0,0 +1,45 @@
+package com.ceihtel.chivalry.controllers;
+
+import com.ceihtel.chivalry.exceptions.SoldierAlreadyExistsException;
+import com.ceihtel.chivalry.exceptions.SoldierNotFoundException;
+import com.ceihtel.chivalry.loaders.BatchQueueFullException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChivalryControllerAdviceTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ChivalryControllerAdvice controllerAdvice = new ChivalryControllerAdvice();
+
+    @Test
+    void shouldCountMappedErrors() {
+        controllerAdvice.bindTo(meterRegistry);
+
+        controllerAdvice.onNotFoundError(new SoldierNotFoundException("Roger"));
+        controllerAdvice.onNotFoundError(new SoldierNotFoundException("Géraud"));
+        controllerAdvice.onConflictError(new SoldierAlreadyExistsException("Roger"));
+
+        assertThat(meterRegistry.get("chivalry.errors").tag("exception", "SoldierNotFoundException").tag("status", "404").counter().count())
+                .isEqualTo(2);
+        assertThat(meterRegistry.get("chivalry.errors").tag("exception", "SoldierAlreadyExistsException").tag("status", "409").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldAnswerWithoutStackTrace() {
+        var e = new SoldierNotFoundException("Roger");
+
+        assertThat(e.getStackTrace()).isEmpty();
+        assertThat(controllerAdvice.onNotFoundError(e).getError()).isEqualTo("Could not find a soldier called 'Roger'");
+    }
+
+    @Test
+    void shouldShareFixedMessageBodies() {
+        var first = controllerAdvice.onOverloadError(new BatchQueueFullException(16));
+        var second = controllerAdvice.onOverloadError(new BatchQueueFullException(16));
+
+        assertThat(first).isSameAs(second);
+        assertThat(first.getError()).isEqualTo(ChivalryControllerAdvice.SOLDIERS_OVERLOADED);
+    }
+}
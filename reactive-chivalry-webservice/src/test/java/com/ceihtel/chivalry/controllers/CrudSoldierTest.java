@@ -1,9 +1,22 @@
 package com.ceihtel.chivalry.controllers;
 
+import com.ceihtel.chivalry.cache.SoldierCache;
+import com.ceihtel.chivalry.config.SoldierProperties;
 import com.ceihtel.chivalry.entities.Soldier;
+import com.ceihtel.chivalry.events.SoldierEventBus;
+import com.ceihtel.chivalry.loaders.SoldierInsertBatcher;
+import com.ceihtel.chivalry.loaders.SoldierNameBatcher;
 import com.ceihtel.chivalry.mappers.SoldierMapper;
 import com.ceihtel.chivalry.mappers.SoldierMapperImpl;
+import com.ceihtel.chivalry.pagination.SoldierCursor;
+import com.ceihtel.chivalry.repositories.BulkInsertResult;
+import com.ceihtel.chivalry.repositories.SoldierField;
 import com.ceihtel.chivalry.repositories.SoldierRepository;
+import com.ceihtel.chivalry.repositories.WeaponCount;
+import com.ceihtel.chivalry.responses.SoldierSeedingDTO;
+import com.ceihtel.chivalry.services.SoldierIngestService;
+import com.ceihtel.chivalry.stats.WeaponStatistics;
+import com.ceihtel.chivalry.suggest.SoldierNameIndex;
 import lombok.extern.slf4j.Slf4j;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.*;
@@ -15,38 +28,74 @@ import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.allOf;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
 
 @WebFluxTest(SoldierController.class)
 @Slf4j
 public class CrudSoldierTest {
     @TestConfiguration
+    @Import({SoldierIngestService.class, SoldierCache.class, WeaponStatistics.class, SoldierEventBus.class})
     public static class CrudSoldierTestConfiguration {
         @Bean
         public SoldierMapper soldierMapper() {
             return new SoldierMapperImpl();
         }
+
+        @Bean
+        public SoldierProperties soldierProperties() {
+            return new SoldierProperties();
+        }
+
+        @Bean
+        public LocalValidatorFactoryBean validator() {
+            // Web slices only provide the validator WebFlux uses, not a javax.validation.Validator bean
+            return new LocalValidatorFactoryBean();
+        }
+
+        @Bean(destroyMethod = "close")
+        public SoldierNameBatcher soldierNameBatcher(SoldierRepository soldierRepository) {
+            return new SoldierNameBatcher(soldierRepository, Duration.ofMillis(1), 100, 1000, 4, Duration.ofSeconds(5));
+        }
+
+        @Bean(destroyMethod = "close")
+        public SoldierInsertBatcher soldierInsertBatcher(SoldierRepository soldierRepository) {
+            return new SoldierInsertBatcher(soldierRepository, Duration.ofMillis(1), 100, 1000, 4, Duration.ofSeconds(5));
+        }
     }
 
     @Autowired
     private WebTestClient webTestClient;
 
+    @Autowired
+    private SoldierCache soldierCache;
+
     @MockBean
     private SoldierRepository soldierRepository;
 
+    @MockBean
+    private SoldierNameIndex soldierNameIndex;
+
     private static ExchangeFilterFunction logRequest() {
         return ExchangeFilterFunction.ofRequestProcessor(clientRequest -> {
             log.info("Request: {} {}", clientRequest.method(), clientRequest.url());
@@ -69,6 +118,7 @@ public class CrudSoldierTest {
     @AfterEach
     public void tearDown() {
         Mockito.reset(soldierRepository);
+        soldierCache.invalidateAll();
     }
 
     private static Soldier getSoldier(String name, String weapon) {
@@ -118,6 +168,210 @@ public class CrudSoldierTest {
             Mockito.verify(soldierRepository).findAll();
             Mockito.verifyNoMoreInteractions(soldierRepository);
         }
+
+        @Test
+        void shouldGetAllFiltered() {
+            Mockito.when(soldierRepository.findFiltered("crossbow", "ro")).thenReturn(
+                    Flux.just(getSoldier("Robert", "Crossbow"), getSoldier("Roger", "Crossbow")));
+
+            webTestClient
+                    .get().uri("/soldiers?weapon=crossbow&namePrefix=ro")
+                    .exchange()
+                    .expectStatus()
+                    .isOk()
+                    .expectBodyList(Soldier.class)
+                    .value(soldiers -> assertThat(soldiers)
+                            .extracting(Soldier::getName)
+                            .containsExactly("Robert", "Roger"));
+
+            Mockito.verify(soldierRepository).findFiltered("crossbow", "ro");
+            Mockito.verifyNoMoreInteractions(soldierRepository);
+        }
+
+        @Test
+        void shouldGetStats() {
+            Mockito.when(soldierRepository.countByWeapon()).thenReturn(
+                    Flux.just(new WeaponCount(null, 1), new WeaponCount("Crossbow", 2), new WeaponCount("Polearm", 3)));
+
+            webTestClient
+                    .get().uri("/soldiers/stats")
+                    .exchange()
+                    .expectStatus()
+                    .isOk()
+                    .expectBody()
+                    .jsonPath("$.total").isEqualTo(6)
+                    .jsonPath("$.weapons.length()").isEqualTo(3)
+                    .jsonPath("$.weapons[1].weapon").isEqualTo("Crossbow")
+                    .jsonPath("$.weapons[1].count").isEqualTo(2);
+
+            Mockito.verify(soldierRepository).countByWeapon();
+            Mockito.verifyNoMoreInteractions(soldierRepository);
+        }
+
+        @Test
+        void shouldStreamAll() {
+            Mockito.when(soldierRepository.streamAll(256)).thenReturn(
+                    Flux.just(getSoldier("Roger", "Crossbow"), getSoldier("Tancrède", "Polearm")));
+
+            webTestClient
+                    .get().uri("/soldiers")
+                    .accept(MediaType.APPLICATION_NDJSON)
+                    .exchange()
+                    .expectStatus()
+                    .isOk()
+                    .expectHeader()
+                    .contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                    .expectBodyList(Soldier.class)
+                    .value(soldiers -> assertThat(soldiers)
+                            .extracting(Soldier::getName)
+                            .containsExactly("Roger", "Tancrède"));
+
+            Mockito.verify(soldierRepository).streamAll(256);
+            Mockito.verifyNoMoreInteractions(soldierRepository);
+        }
+
+        @Test
+        void shouldStreamAllFiltered() {
+            Mockito.when(soldierRepository.streamFiltered("crossbow", null, 256)).thenReturn(
+                    Flux.just(getSoldier("Robert", "Crossbow"), getSoldier("Roger", "Crossbow")));
+
+            webTestClient
+                    .get().uri("/soldiers?weapon=crossbow")
+                    .accept(MediaType.APPLICATION_NDJSON)
+                    .exchange()
+                    .expectStatus()
+                    .isOk()
+                    .expectBodyList(Soldier.class)
+                    .value(soldiers -> assertThat(soldiers)
+                            .extracting(Soldier::getName)
+                            .containsExactly("Robert", "Roger"));
+
+            Mockito.verify(soldierRepository).streamFiltered("crossbow", null, 256);
+            Mockito.verifyNoMoreInteractions(soldierRepository);
+        }
+
+        @Test
+        void shouldGetFirstPage() {
+            var roger = getSoldier("Roger", "Crossbow");
+            roger.setId("6363a1f2e4b0c1a2b3c4d5e6");
+            var tancrede = getSoldier("Tancrède", "Polearm");
+            tancrede.setId("6363a1f2e4b0c1a2b3c4d5e7");
+            Mockito.when(soldierRepository.findPage(null, 2)).thenReturn(Flux.just(roger, tancrede));
+
+            webTestClient
+                    .get().uri("/soldiers?limit=1")
+                    .exchange()
+                    .expectStatus()
+                    .isOk()
+                    .expectBody()
+                    .jsonPath("$.soldiers.length()").isEqualTo(1)
+                    .jsonPath("$.soldiers[0].name").isEqualTo("Roger")
+                    .jsonPath("$.next").isEqualTo(SoldierCursor.encode("6363a1f2e4b0c1a2b3c4d5e6"));
+
+            Mockito.verify(soldierRepository).findPage(null, 2);
+            Mockito.verifyNoMoreInteractions(soldierRepository);
+        }
+
+        @Test
+        void shouldGetLastPage() {
+            var tancrede = getSoldier("Tancrède", "Polearm");
+            tancrede.setId("6363a1f2e4b0c1a2b3c4d5e7");
+            Mockito.when(soldierRepository.findPage("6363a1f2e4b0c1a2b3c4d5e6", 3)).thenReturn(Flux.just(tancrede));
+
+            webTestClient
+                    .get().uri("/soldiers?limit=2&after={after}", SoldierCursor.encode("6363a1f2e4b0c1a2b3c4d5e6"))
+                    .exchange()
+                    .expectStatus()
+                    .isOk()
+                    .expectBody()
+                    .jsonPath("$.soldiers.length()").isEqualTo(1)
+                    .jsonPath("$.soldiers[0].name").isEqualTo("Tancrède")
+                    .jsonPath("$.next").doesNotExist();
+
+            Mockito.verify(soldierRepository).findPage("6363a1f2e4b0c1a2b3c4d5e6", 3);
+            Mockito.verifyNoMoreInteractions(soldierRepository);
+        }
+
+        @Test
+        void shouldFailPage_invalidCursor() {
+            webTestClient
+                    .get().uri("/soldiers?limit=2&after=Roger")
+                    .exchange()
+                    .expectStatus()
+                    .isBadRequest()
+                    .expectBody()
+                    .jsonPath("$.error").isEqualTo("Invalid page cursor 'Roger'");
+
+            Mockito.verifyNoInteractions(soldierRepository);
+        }
+
+        @Test
+        void shouldGetAllProjected() {
+            var roger = new Soldier();
+            roger.setName("Roger");
+            var tancrede = new Soldier();
+            tancrede.setName("Tancrède");
+            Mockito.when(soldierRepository.findAllProjected(EnumSet.of(SoldierField.NAME))).thenReturn(Flux.just(roger, tancrede));
+
+            webTestClient
+                    .get().uri("/soldiers?fields=name")
+                    .exchange()
+                    .expectStatus()
+                    .isOk()
+                    .expectBody()
+                    .jsonPath("$[0].name").isEqualTo("Roger")
+                    .jsonPath("$[0].id").doesNotExist()
+                    .jsonPath("$[0].weapon").doesNotExist()
+                    .jsonPath("$[1].name").isEqualTo("Tancrède");
+
+            Mockito.verify(soldierRepository).findAllProjected(EnumSet.of(SoldierField.NAME));
+            Mockito.verifyNoMoreInteractions(soldierRepository);
+        }
+
+        @Test
+        void shouldGetAllFilteredProjected() {
+            var roger = new Soldier();
+            roger.setName("Roger");
+            Mockito.when(soldierRepository.findFilteredProjected("crossbow", "ro", EnumSet.of(SoldierField.NAME))).thenReturn(Flux.just(roger));
+
+            webTestClient
+                    .get().uri("/soldiers?fields=name&weapon=crossbow&namePrefix=ro")
+                    .exchange()
+                    .expectStatus()
+                    .isOk()
+                    .expectBody()
+                    .jsonPath("$.length()").isEqualTo(1)
+                    .jsonPath("$[0].name").isEqualTo("Roger");
+
+            Mockito.verify(soldierRepository).findFilteredProjected("crossbow", "ro", EnumSet.of(SoldierField.NAME));
+            Mockito.verifyNoMoreInteractions(soldierRepository);
+        }
+
+        @Test
+        void shouldFailPage_filtered() {
+            webTestClient
+                    .get().uri("/soldiers?limit=2&weapon=crossbow")
+                    .exchange()
+                    .expectStatus()
+                    .isBadRequest()
+                    .expectBody()
+                    .jsonPath("$.error").isEqualTo(SoldierController.FILTERED_PAGE);
+
+            Mockito.verifyNoInteractions(soldierRepository);
+        }
+
+        @Test
+        void shouldFailProjection_unknownField() {
+            webTestClient
+                    .get().uri("/soldiers?fields=name,horse")
+                    .exchange()
+                    .expectStatus()
+                    .isBadRequest()
+                    .expectBody()
+                    .jsonPath("$.error").isEqualTo("Unknown soldier field 'horse', expected some of [armyId, id, name, weapon]");
+
+            Mockito.verifyNoInteractions(soldierRepository);
+        }
     }
 
     @Nested
@@ -158,6 +412,110 @@ public class CrudSoldierTest {
             Mockito.verify(soldierRepository).findByName("Roger");
             Mockito.verifyNoMoreInteractions(soldierRepository);
         }
+
+        @Test
+        void shouldServeRepeatedLookupsFromCache() {
+            Mockito.when(soldierRepository.findByName("Roger")).thenReturn(
+                    Mono.just(getSoldier("Roger", "Crossbow")));
+            Mockito.when(soldierRepository.findByName("Tancrède")).thenReturn(Mono.empty());
+
+            for (int i = 0; i < 3; i++) {
+                webTestClient
+                        .get().uri("/soldiers/Roger")
+                        .exchange()
+                        .expectStatus()
+                        .isOk();
+            }
+            webTestClient
+                    .get().uri("/soldiers/Tancrède")
+                    .exchange()
+                    .expectStatus()
+                    .isNotFound();
+            webTestClient
+                    .get().uri("/soldiers/Tancrède")
+                    .exchange()
+                    .expectStatus()
+                    .isNotFound();
+
+            Mockito.verify(soldierRepository).findByName("Roger");
+            Mockito.verify(soldierRepository).findByName("Tancrède");
+            Mockito.verifyNoMoreInteractions(soldierRepository);
+        }
+
+        @Test
+        void shouldForgetMissingSoldierOnceCreated() {
+            Mockito.when(soldierRepository.findByName("Roger"))
+                    .thenReturn(Mono.empty())
+                    .thenReturn(Mono.just(getSoldier("Roger", "Crossbow")));
+            Mockito.when(soldierRepository.insert(any(Soldier.class))).thenReturn(Mono.just(getSoldier("Roger", "Crossbow")));
+
+            webTestClient
+                    .get().uri("/soldiers/Roger")
+                    .exchange()
+                    .expectStatus()
+                    .isNotFound();
+            webTestClient
+                    .post().uri("/soldiers")
+                    .header(CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .body(BodyInserters.fromValue("{ \"name\": \"Roger\", \"weapon\": \"Crossbow\" }"))
+                    .exchange()
+                    .expectStatus()
+                    .isCreated();
+            webTestClient
+                    .get().uri("/soldiers/Roger")
+                    .exchange()
+                    .expectStatus()
+                    .isOk();
+
+            Mockito.verify(soldierRepository, Mockito.times(2)).findByName("Roger");
+        }
+
+        @Test
+        void shouldAnswerNotModified_matchingETag() {
+            var roger = getSoldier("Roger", "Crossbow");
+            roger.setVersion(3L);
+            var etag = "\"" + roger.getId() + ":3\"";
+            Mockito.when(soldierRepository.findByName("Roger")).thenReturn(Mono.just(roger));
+
+            webTestClient
+                    .get().uri("/soldiers/Roger")
+                    .exchange()
+                    .expectStatus()
+                    .isOk()
+                    .expectHeader()
+                    .valueEquals(HttpHeaders.ETAG, etag);
+            webTestClient
+                    .get().uri("/soldiers/Roger")
+                    .ifNoneMatch(etag)
+                    .exchange()
+                    .expectStatus()
+                    .isNotModified()
+                    .expectBody()
+                    .isEmpty();
+
+            Mockito.verify(soldierRepository).findByName("Roger");
+            Mockito.verifyNoMoreInteractions(soldierRepository);
+        }
+
+        @Test
+        void shouldReturnOneSoldierProjected() {
+            var roger = new Soldier();
+            roger.setWeapon("Crossbow");
+            Mockito.when(soldierRepository.findByNameProjected("Roger", EnumSet.of(SoldierField.WEAPON))).thenReturn(Mono.just(roger));
+
+            webTestClient
+                    .get().uri("/soldiers/Roger?fields=weapon")
+                    .exchange()
+                    .expectStatus()
+                    .isOk()
+                    .expectBody()
+                    .jsonPath("$.weapon").isEqualTo("Crossbow")
+                    .jsonPath("$.id").doesNotExist()
+                    .jsonPath("$.name").doesNotExist();
+
+            Mockito.verify(soldierRepository).findByNameProjected("Roger", EnumSet.of(SoldierField.WEAPON));
+            Mockito.verifyNoMoreInteractions(soldierRepository);
+        }
     }
 
     @Nested
@@ -167,8 +525,7 @@ public class CrudSoldierTest {
 
         @Test
         void shouldCreateSoldier() {
-            Mockito.when(soldierRepository.findByName("Roger")).thenReturn(Mono.empty());
-            Mockito.when(soldierRepository.save(any(Soldier.class))).thenReturn(Mono.just(getSoldier("Roger", "Shortsword")));
+            Mockito.when(soldierRepository.insert(any(Soldier.class))).thenReturn(Mono.just(getSoldier("Roger", "Shortsword")));
 
             webTestClient
                     .post().uri("/soldiers")
@@ -181,8 +538,7 @@ public class CrudSoldierTest {
                     .jsonPath("$.name").isEqualTo("Roger")
                     .jsonPath("$.weapon").isEqualTo("Shortsword");
 
-            Mockito.verify(soldierRepository).findByName("Roger");
-            Mockito.verify(soldierRepository).save(MockitoHamcrest.argThat(allOf(
+            Mockito.verify(soldierRepository).insert((Soldier) MockitoHamcrest.argThat(allOf(
                     Matchers.isA(Soldier.class),
                     Matchers.<Soldier>hasProperty("name", is("Roger")),
                     Matchers.<Soldier>hasProperty("weapon", is("Shortsword")))));
@@ -204,7 +560,8 @@ public class CrudSoldierTest {
 
         @Test
         void shouldFail_alreadyExist() {
-            Mockito.when(soldierRepository.findByName("Roger")).thenReturn(Mono.just(getSoldier("Roger", "Crossbow")));
+            Mockito.when(soldierRepository.insert(any(Soldier.class))).thenReturn(
+                    Mono.error(new DuplicateKeyException("E11000 duplicate key error collection: chivalry.soldier index: name")));
 
             webTestClient
                     .post().uri("/soldiers")
@@ -216,23 +573,188 @@ public class CrudSoldierTest {
                     .expectBody()
                     .jsonPath("$.error").isEqualTo("A soldier called 'Roger' already exists");
 
+            Mockito.verify(soldierRepository).insert(any(Soldier.class));
+            Mockito.verifyNoMoreInteractions(soldierRepository);
+        }
+
+        @Test
+        void shouldUpsertSoldier() {
+            Mockito.when(soldierRepository.upsertByName("Roger", "Longbow")).thenReturn(Mono.just(getSoldier("Roger", "Longbow")));
+
+            webTestClient
+                    .put().uri("/soldiers/Roger")
+                    .header(CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .body(BodyInserters.fromValue("{ \"weapon\": \"Longbow\" }"))
+                    .exchange()
+                    .expectStatus()
+                    .isOk()
+                    .expectBody()
+                    .jsonPath("$.name").isEqualTo("Roger")
+                    .jsonPath("$.weapon").isEqualTo("Longbow");
+
+            Mockito.verify(soldierRepository).upsertByName("Roger", "Longbow");
+            Mockito.verifyNoMoreInteractions(soldierRepository);
+        }
+
+        @Test
+        void shouldUpdateSoldier_matchingETag() {
+            var roger = getSoldier("Roger", "Crossbow");
+            roger.setVersion(3L);
+            var updated = getSoldier("Roger", "Longbow");
+            updated.setId(roger.getId());
+            updated.setVersion(4L);
+            Mockito.when(soldierRepository.findByName("Roger")).thenReturn(Mono.just(roger));
+            Mockito.when(soldierRepository.updateIfVersion("Roger", roger.getId(), 3L, "Longbow")).thenReturn(Mono.just(updated));
+
+            webTestClient
+                    .put().uri("/soldiers/Roger")
+                    .header(HttpHeaders.IF_MATCH, "\"" + roger.getId() + ":3\"")
+                    .header(CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .body(BodyInserters.fromValue("{ \"weapon\": \"Longbow\" }"))
+                    .exchange()
+                    .expectStatus()
+                    .isOk()
+                    .expectHeader()
+                    .valueEquals(HttpHeaders.ETAG, "\"" + roger.getId() + ":4\"")
+                    .expectBody()
+                    .jsonPath("$.weapon").isEqualTo("Longbow");
+
+            Mockito.verify(soldierRepository).findByName("Roger");
+            Mockito.verify(soldierRepository).updateIfVersion("Roger", roger.getId(), 3L, "Longbow");
+            Mockito.verifyNoMoreInteractions(soldierRepository);
+        }
+
+        @Test
+        void shouldFailUpdate_modifiedSoldier() {
+            var roger = getSoldier("Roger", "Crossbow");
+            roger.setVersion(3L);
+            Mockito.when(soldierRepository.findByName("Roger")).thenReturn(Mono.just(roger));
+            Mockito.when(soldierRepository.updateIfVersion("Roger", roger.getId(), 3L, "Longbow")).thenReturn(Mono.empty());
+
+            webTestClient
+                    .put().uri("/soldiers/Roger")
+                    .header(HttpHeaders.IF_MATCH, "\"" + roger.getId() + ":3\"")
+                    .header(CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .body(BodyInserters.fromValue("{ \"weapon\": \"Longbow\" }"))
+                    .exchange()
+                    .expectStatus()
+                    .isEqualTo(HttpStatus.PRECONDITION_FAILED)
+                    .expectBody()
+                    .jsonPath("$.error").isEqualTo("The soldier called 'Roger' does not match the given ETag");
+
+            // The conditional update matched nothing, no other write was attempted
             Mockito.verify(soldierRepository).findByName("Roger");
+            Mockito.verify(soldierRepository).updateIfVersion("Roger", roger.getId(), 3L, "Longbow");
+            Mockito.verify(soldierRepository, Mockito.never()).upsertByName(any(), any());
+            Mockito.verifyNoMoreInteractions(soldierRepository);
+            assertThat(roger.getWeapon()).isEqualTo("Crossbow");
+        }
+
+        @Test
+        void shouldFailUpsert_missingWeapon() {
+            webTestClient
+                    .put().uri("/soldiers/Roger")
+                    .header(CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .body(BodyInserters.fromValue("{ \"weapon\": \"\" }"))
+                    .exchange()
+                    .expectStatus()
+                    .isBadRequest();
+
+            Mockito.verifyNoInteractions(soldierRepository);
+        }
+
+        @Test
+        void shouldCreateSoldiersInBulk() {
+            Mockito.when(soldierRepository.insertUnordered(anyList())).thenAnswer(invocation -> {
+                List<Soldier> soldiers = invocation.getArgument(0);
+                return Mono.just(new BulkInsertResult(List.of(soldiers.get(0)), List.of(soldiers.get(1))));
+            });
+
+            webTestClient
+                    .post().uri("/soldiers/bulk")
+                    .header(CONTENT_TYPE, MediaType.APPLICATION_NDJSON_VALUE)
+                    .body(BodyInserters.fromValue("""
+                            { "name": "Roger", "weapon": "Shortsword" }
+                            { "name": "", "weapon": "Crossbow" }
+                            { "name": "Géraud", "weapon": "Polearm" }
+                            """))
+                    .exchange()
+                    .expectStatus()
+                    .isOk()
+                    .expectBody()
+                    .jsonPath("$.length()").isEqualTo(3)
+                    .jsonPath("$[0].status").isEqualTo("CREATED")
+                    .jsonPath("$[0].soldier.weapon").isEqualTo("Shortsword")
+                    .jsonPath("$[1].status").isEqualTo("INVALID")
+                    .jsonPath("$[1].error").isEqualTo("name must not be blank")
+                    .jsonPath("$[2].status").isEqualTo("DUPLICATE")
+                    .jsonPath("$[2].error").isEqualTo("A soldier called 'Géraud' already exists");
+
+            Mockito.verify(soldierRepository).insertUnordered(Mockito.argThat(soldiers ->
+                    soldiers.stream().map(Soldier::getName).toList().equals(List.of("Roger", "Géraud"))));
             Mockito.verifyNoMoreInteractions(soldierRepository);
         }
 
         @Test
         void shouldCreateRandomSoldier() {
-            Mockito.when(soldierRepository.save(any(Soldier.class))).thenReturn(Mono.just(getSoldier("Roger", "Shortsword")));
+            Mockito.when(soldierRepository.insertUnordered(anyList())).thenAnswer(invocation -> {
+                List<Soldier> soldiers = invocation.getArgument(0);
+                soldiers.forEach(soldier -> soldier.setId(UUID.randomUUID().toString()));
+                return Mono.just(new BulkInsertResult(soldiers, List.of()));
+            });
 
             webTestClient
                     .post().uri("/soldiers/random")
                     .exchange()
                     .expectStatus()
-                    .isCreated();
+                    .isCreated()
+                    .expectBody()
+                    .jsonPath("$.id").exists();
 
-            Mockito.verify(soldierRepository).save(any(Soldier.class));
+            Mockito.verify(soldierRepository).insertUnordered(anyList());
             Mockito.verifyNoMoreInteractions(soldierRepository);
         }
+
+        @Test
+        void shouldSeedRandomSoldiers() {
+            Mockito.when(soldierRepository.insertUnordered(anyList())).thenAnswer(invocation -> {
+                List<Soldier> soldiers = invocation.getArgument(0);
+                // The first soldier of every batch takes a name already in use
+                return Mono.just(new BulkInsertResult(soldiers.subList(1, soldiers.size()), soldiers.subList(0, 1)));
+            });
+
+            var progress = webTestClient
+                    .post().uri("/soldiers/random?count=2500")
+                    .accept(MediaType.APPLICATION_NDJSON)
+                    .exchange()
+                    .expectStatus()
+                    .isCreated()
+                    .returnResult(SoldierSeedingDTO.class)
+                    .getResponseBody()
+                    .collectList()
+                    .block();
+
+            assertThat(progress).isNotEmpty();
+            var last = progress.get(progress.size() - 1);
+            assertThat(last.isComplete()).isTrue();
+            assertThat(last.getRequested()).isEqualTo(2500);
+            assertThat(last.getInserted()).isEqualTo(2497);
+            assertThat(last.getDuplicates()).isEqualTo(3);
+
+            // Batches of 1000
+            Mockito.verify(soldierRepository, Mockito.times(3)).insertUnordered(anyList());
+        }
+
+        @Test
+        void shouldRejectInvalidSeedingCount() {
+            webTestClient
+                    .post().uri("/soldiers/random?count=0")
+                    .exchange()
+                    .expectStatus()
+                    .isBadRequest();
+
+            Mockito.verifyNoInteractions(soldierRepository);
+        }
     }
 
     @Nested
@@ -242,11 +764,31 @@ public class CrudSoldierTest {
 
         @Test
         void shouldDeleteSoldier() {
-            Mockito.when(soldierRepository.findByName("Roger")).thenReturn(Mono.just(getSoldier("Roger", "Crossbow")));
+            var roger = getSoldier("Roger", "Crossbow");
+            Mockito.when(soldierRepository.findByName("Roger")).thenReturn(Mono.just(roger));
+            Mockito.when(soldierRepository.deleteById(roger.getId())).thenReturn(Mono.empty());
+
+            webTestClient
+                    .delete().uri("/soldiers/Roger")
+                    .exchange()
+                    .expectStatus()
+                    .isNoContent();
+
+            Mockito.verify(soldierRepository).findByName("Roger");
+            Mockito.verify(soldierRepository).deleteById(roger.getId());
+            Mockito.verifyNoMoreInteractions(soldierRepository);
+        }
+
+        @Test
+        void shouldDeleteSoldier_matchingETag() {
+            var roger = getSoldier("Roger", "Crossbow");
+            roger.setVersion(3L);
+            Mockito.when(soldierRepository.findByName("Roger")).thenReturn(Mono.just(roger));
             Mockito.when(soldierRepository.delete(any(Soldier.class))).thenReturn(Mono.empty());
 
             webTestClient
                     .delete().uri("/soldiers/Roger")
+                    .header(HttpHeaders.IF_MATCH, "\"" + roger.getId() + ":3\"")
                     .exchange()
                     .expectStatus()
                     .isNoContent();
@@ -255,7 +797,27 @@ public class CrudSoldierTest {
             Mockito.verify(soldierRepository).delete(MockitoHamcrest.argThat(allOf(
                     Matchers.isA(Soldier.class),
                     Matchers.<Soldier>hasProperty("name", is("Roger")),
-                    Matchers.<Soldier>hasProperty("weapon", is("Crossbow")))));
+                    Matchers.<Soldier>hasProperty("version", is(3L)))));
+            Mockito.verifyNoMoreInteractions(soldierRepository);
+        }
+
+        @Test
+        void failure_modifiedSoldier() {
+            var roger = getSoldier("Roger", "Crossbow");
+            roger.setVersion(3L);
+            Mockito.when(soldierRepository.findByName("Roger")).thenReturn(Mono.just(roger));
+
+            webTestClient
+                    .delete().uri("/soldiers/Roger")
+                    .header(HttpHeaders.IF_MATCH, "\"" + roger.getId() + ":2\"")
+                    .exchange()
+                    .expectStatus()
+                    .isEqualTo(HttpStatus.PRECONDITION_FAILED)
+                    .expectBody()
+                    .jsonPath("$.error").isEqualTo("The soldier called 'Roger' does not match the given ETag");
+
+            Mockito.verify(soldierRepository).findByName("Roger");
+            Mockito.verify(soldierRepository, Mockito.never()).delete(any(Soldier.class));
             Mockito.verifyNoMoreInteractions(soldierRepository);
         }
 
@@ -277,10 +839,7 @@ public class CrudSoldierTest {
 
         @Test
         void shouldDeleteAll() {
-            Mockito.when(soldierRepository.findAll()).thenReturn(Flux.just(
-                    getSoldier("Roger", "Crossbow"),
-                    getSoldier("Géraud", "Polearm")));
-            Mockito.when(soldierRepository.delete(any(Soldier.class))).thenReturn(Mono.empty());
+            Mockito.when(soldierRepository.deleteAll()).thenReturn(Mono.empty());
 
             webTestClient
                     .delete().uri("/soldiers")
@@ -288,16 +847,55 @@ public class CrudSoldierTest {
                     .expectStatus()
                     .isNoContent();
 
-            Mockito.verify(soldierRepository).findAll();
-            Mockito.verify(soldierRepository).delete(MockitoHamcrest.argThat(allOf(
-                    Matchers.isA(Soldier.class),
-                    Matchers.<Soldier>hasProperty("name", is("Roger")),
-                    Matchers.<Soldier>hasProperty("weapon", is("Crossbow")))));
-            Mockito.verify(soldierRepository).delete(MockitoHamcrest.argThat(allOf(
-                    Matchers.isA(Soldier.class),
-                    Matchers.<Soldier>hasProperty("name", is("Géraud")),
-                    Matchers.<Soldier>hasProperty("weapon", is("Polearm")))));
+            Mockito.verify(soldierRepository).deleteAll();
             Mockito.verifyNoMoreInteractions(soldierRepository);
         }
+
+        @Test
+        void shouldDeleteAllByWeapon() {
+            Mockito.when(soldierRepository.deleteByWeapon("Crossbow")).thenReturn(Mono.just(2L));
+
+            webTestClient
+                    .delete().uri("/soldiers?weapon=Crossbow")
+                    .exchange()
+                    .expectStatus()
+                    .isOk()
+                    .expectBody()
+                    .jsonPath("$.deleted").isEqualTo(2);
+
+            Mockito.verify(soldierRepository).deleteByWeapon("Crossbow");
+            Mockito.verifyNoMoreInteractions(soldierRepository);
+        }
+
+        @Test
+        void shouldDeleteAllByName() {
+            Mockito.when(soldierRepository.deleteByNameIn(List.of("Roger", "Géraud"))).thenReturn(Mono.just(1L));
+
+            webTestClient
+                    .post().uri("/soldiers/deletions")
+                    .header(CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .body(BodyInserters.fromValue("{ \"names\": [\"Roger\", \"Géraud\"] }"))
+                    .exchange()
+                    .expectStatus()
+                    .isOk()
+                    .expectBody()
+                    .jsonPath("$.deleted").isEqualTo(1);
+
+            Mockito.verify(soldierRepository).deleteByNameIn(List.of("Roger", "Géraud"));
+            Mockito.verifyNoMoreInteractions(soldierRepository);
+        }
+
+        @Test
+        void shouldFailDeleteAllByName_missingNames() {
+            webTestClient
+                    .post().uri("/soldiers/deletions")
+                    .header(CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .body(BodyInserters.fromValue("{ \"names\": [] }"))
+                    .exchange()
+                    .expectStatus()
+                    .isBadRequest();
+
+            Mockito.verifyNoInteractions(soldierRepository);
+        }
     }
 }
@@ -0,0 +1,70 @@
+package com.ceihtel.chivalry.events;
+
+import com.ceihtel.chivalry.config.SoldierProperties;
+import com.ceihtel.chivalry.entities.Soldier;
+import com.ceihtel.chivalry.repositories.SoldierRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SoldierEventBusTest {
+    private final SoldierRepository soldierRepository = Mockito.mock(SoldierRepository.class);
+
+    private static SoldierEvent created(String name) {
+        var soldier = new Soldier();
+        soldier.setId(name.toLowerCase());
+        soldier.setName(name);
+        return SoldierEvent.created(soldier);
+    }
+
+    private SoldierEventBus getSoldierEventBus(SoldierProperties.Events.Source source) {
+        var soldierProperties = new SoldierProperties();
+        soldierProperties.getEvents().setSource(source);
+        soldierProperties.getEvents().setBufferSize(2);
+        return new SoldierEventBus(soldierRepository, soldierProperties);
+    }
+
+    @Test
+    void shouldNotHoldBackOtherClientsForASlowOne() {
+        var soldierEventBus = getSoldierEventBus(SoldierProperties.Events.Source.API);
+        var meterRegistry = new SimpleMeterRegistry();
+        soldierEventBus.bindTo(meterRegistry);
+
+        var fast = StepVerifier.create(soldierEventBus.subscribe())
+                .expectNext(created("Roger"), created("Tancrède"), created("Géraud"), created("Baudouin"))
+                .thenCancel()
+                .verifyLater();
+        // Reads nothing until every event is out, only the last two are still buffered by then
+        StepVerifier.create(soldierEventBus.subscribe(), 0)
+                .expectSubscription()
+                .then(() -> {
+                    soldierEventBus.publish(created("Roger"));
+                    soldierEventBus.publish(created("Tancrède"));
+                    soldierEventBus.publish(created("Géraud"));
+                    soldierEventBus.publish(created("Baudouin"));
+                })
+                .thenRequest(Long.MAX_VALUE)
+                .expectNext(created("Géraud"), created("Baudouin"))
+                .thenCancel()
+                .verify(Duration.ofSeconds(1));
+
+        fast.verify(Duration.ofSeconds(1));
+        assertThat(meterRegistry.get("chivalry.soldiers.events.dropped").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldIgnorePublishedEventsWhenFollowingTheChangeStream() {
+        var soldierEventBus = getSoldierEventBus(SoldierProperties.Events.Source.CHANGE_STREAM);
+
+        StepVerifier.create(soldierEventBus.subscribe())
+                .then(() -> soldierEventBus.publish(created("Roger")))
+                .expectNoEvent(Duration.ofMillis(100))
+                .thenCancel()
+                .verify();
+    }
+}
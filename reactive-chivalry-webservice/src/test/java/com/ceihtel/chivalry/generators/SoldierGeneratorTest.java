@@ -0,0 +1,37 @@
+package com.ceihtel.chivalry.generators;
+
+import com.ceihtel.chivalry.entities.Soldier;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SoldierGeneratorTest {
+    @Test
+    void shouldGenerateUniqueNamesAcrossGenerators() {
+        var names = new HashSet<String>();
+        var first = new SoldierGenerator(new SplittableRandom(1));
+        var second = new SoldierGenerator(new SplittableRandom(2));
+        for (int i = 0; i < 50_000; i++) {
+            assertThat(names.add(first.next().getName())).isTrue();
+            assertThat(names.add(second.next().getName())).isTrue();
+        }
+    }
+
+    @Test
+    void shouldPickWeaponsByWeight() {
+        var generator = new SoldierGenerator(new SplittableRandom(1));
+        var weapons = Stream.generate(generator::next)
+                .limit(100_000)
+                .collect(Collectors.groupingBy(Soldier::getWeapon, Collectors.counting()));
+
+        assertThat(weapons).hasSize(8);
+        // Swords weigh 30 out of 100, warhammers 2
+        assertThat(weapons.get("Sword")).isBetween(29_000L, 31_000L);
+        assertThat(weapons.get("Warhammer")).isBetween(1_700L, 2_300L);
+    }
+}
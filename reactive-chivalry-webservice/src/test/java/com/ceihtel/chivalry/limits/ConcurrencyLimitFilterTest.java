@@ -0,0 +1,147 @@
+package com.ceihtel.chivalry.limits;
+
+import com.ceihtel.chivalry.config.SoldierProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConcurrencyLimitFilterTest {
+    private static SoldierProperties.Limiter.Group group(int initialLimit) {
+        var group = new SoldierProperties.Limiter.Group(Duration.ofMillis(100));
+        group.setInitialLimit(initialLimit);
+        group.setMinLimit(1);
+        group.setMaxLimit(10);
+        group.setBackoffRatio(0.5);
+        return group;
+    }
+
+    @Test
+    void shouldGrowOnFastRequestsAndShrinkOnSlowOnes() {
+        var limiter = new AimdLimiter(group(2));
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+
+        limiter.release(Duration.ofMillis(10).toNanos(), false);
+        assertThat(limiter.getLimit()).isEqualTo(3);
+
+        limiter.release(Duration.ofSeconds(1).toNanos(), false);
+        assertThat(limiter.getLimit()).isEqualTo(1);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void shouldShrinkOnFailuresDownToTheMinimum() {
+        var limiter = new AimdLimiter(group(4));
+        for (var i = 0; i < 5; i++) {
+            limiter.tryAcquire();
+            limiter.release(0, true);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotGrowWhileMostlyIdle() {
+        var limiter = new AimdLimiter(group(8));
+        limiter.tryAcquire();
+        limiter.release(0, false);
+        assertThat(limiter.getLimit()).isEqualTo(8);
+    }
+
+    @Test
+    void shouldRejectReadsBeyondTheLimitWithRetryAfter() {
+        var soldierProperties = new SoldierProperties();
+        soldierProperties.getLimiter().getReads().setInitialLimit(1);
+        soldierProperties.getLimiter().getReads().setMinLimit(1);
+        soldierProperties.getLimiter().setRetryAfter(Duration.ofSeconds(3));
+        var filter = new ConcurrencyLimitFilter(soldierProperties);
+        var registry = new SimpleMeterRegistry();
+        filter.bindTo(registry);
+
+        // The first read stays in flight until the sink completes
+        var pending = Sinks.<Void>empty();
+        var first = MockServerWebExchange.from(MockServerHttpRequest.get("/soldiers/Roger"));
+        var subscription = filter.filter(first, exchange -> pending.asMono()).subscribe();
+
+        var second = MockServerWebExchange.from(MockServerHttpRequest.get("/soldiers/Tancrède"));
+        filter.filter(second, exchange -> Mono.empty()).block();
+        assertThat(second.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(second.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("3");
+        assertThat(registry.get("chivalry.limiter.rejected").tag("group", "reads").counter().count()).isEqualTo(1);
+        // Turning requests away is not a sign of overload in itself
+        assertThat(registry.get("chivalry.limiter.limit").tag("group", "reads").gauge().value()).isEqualTo(1);
+
+        // Writes have a limit of their own
+        var write = MockServerWebExchange.from(MockServerHttpRequest.post("/soldiers/random"));
+        filter.filter(write, exchange -> Mono.empty()).block();
+        assertThat(write.getResponse().getStatusCode()).isNull();
+
+        // So do streams, which are not limited
+        var stream = MockServerWebExchange.from(MockServerHttpRequest.get("/soldiers").accept(MediaType.APPLICATION_NDJSON));
+        filter.filter(stream, exchange -> Mono.empty()).block();
+        assertThat(stream.getResponse().getStatusCode()).isNull();
+
+        pending.tryEmitEmpty();
+        assertThat(subscription.isDisposed()).isTrue();
+        assertThat(registry.get("chivalry.limiter.inflight").tag("group", "reads").gauge().value()).isZero();
+    }
+
+    @Test
+    void shouldOnlyShrinkOnServerFailures() {
+        var soldierProperties = new SoldierProperties();
+        soldierProperties.getLimiter().getWrites().setInitialLimit(4);
+        soldierProperties.getLimiter().getWrites().setMinLimit(1);
+        soldierProperties.getLimiter().getWrites().setBackoffRatio(0.5);
+        var filter = new ConcurrencyLimitFilter(soldierProperties);
+        var limiter = filter.getLimiter(ConcurrencyLimitFilter.RouteGroup.WRITES);
+
+        // A burst of bad requests, answered by the controller advice or failing on the way to the controller
+        for (var i = 0; i < 10; i++) {
+            var answered = MockServerWebExchange.from(MockServerHttpRequest.post("/soldiers"));
+            filter.filter(answered, exchange -> Mono.fromRunnable(() -> exchange.getResponse().setStatusCode(HttpStatus.BAD_REQUEST))).block();
+
+            var invalid = MockServerWebExchange.from(MockServerHttpRequest.post("/soldiers"));
+            assertThatThrownBy(() -> filter.filter(invalid, exchange -> Mono.error(new ServerWebInputException("No body"))).block())
+                    .isInstanceOf(ServerWebInputException.class);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(4);
+        assertThat(limiter.getInFlight()).isZero();
+
+        var failed = MockServerWebExchange.from(MockServerHttpRequest.post("/soldiers"));
+        filter.filter(failed, exchange -> Mono.fromRunnable(() -> exchange.getResponse().setStatusCode(HttpStatus.INTERNAL_SERVER_ERROR))).block();
+        assertThat(limiter.getLimit()).isEqualTo(2);
+
+        var timedOut = MockServerWebExchange.from(MockServerHttpRequest.post("/soldiers"));
+        assertThatThrownBy(() -> filter.filter(timedOut, exchange -> Mono.error(new TimeoutException())).block())
+                .hasCauseInstanceOf(TimeoutException.class);
+        assertThat(limiter.getLimit()).isEqualTo(1);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void shouldLetEverythingThroughWhenDisabled() {
+        var soldierProperties = new SoldierProperties();
+        soldierProperties.getLimiter().setEnabled(false);
+        soldierProperties.getLimiter().getReads().setInitialLimit(0);
+        soldierProperties.getLimiter().getReads().setMinLimit(0);
+        var filter = new ConcurrencyLimitFilter(soldierProperties);
+
+        var exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/soldiers/Roger"));
+        filter.filter(exchange, __ -> Mono.empty()).block();
+        assertThat(exchange.getResponse().getStatusCode()).isNull();
+    }
+}
@@ -0,0 +1,111 @@
+package com.ceihtel.chivalry.loaders;
+
+import com.ceihtel.chivalry.entities.Soldier;
+import com.ceihtel.chivalry.repositories.BulkInsertResult;
+import com.ceihtel.chivalry.repositories.SoldierRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.dao.DuplicateKeyException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+
+class SoldierInsertBatcherTest {
+    private final SoldierRepository soldierRepository = Mockito.mock(SoldierRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private SoldierInsertBatcher soldierInsertBatcher;
+
+    @BeforeEach
+    void setup() {
+        soldierInsertBatcher = new SoldierInsertBatcher(soldierRepository, Duration.ofMillis(50), 10, 3, 1, Duration.ofMillis(500));
+        soldierInsertBatcher.bindTo(meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        soldierInsertBatcher.close();
+    }
+
+    private static Soldier getSoldier(String name) {
+        var soldier = new Soldier();
+        soldier.setName(name);
+        return soldier;
+    }
+
+    @Test
+    void shouldCoalesceConcurrentInserts() {
+        Mockito.when(soldierRepository.insertUnordered(anyList())).thenAnswer(invocation -> {
+            List<Soldier> soldiers = invocation.getArgument(0);
+            soldiers.forEach(soldier -> soldier.setId(UUID.randomUUID().toString()));
+            // The last soldier takes a name already in use
+            return Mono.just(new BulkInsertResult(soldiers.subList(0, 2), soldiers.subList(2, 3)));
+        });
+
+        var inserts = Flux.merge(
+                        soldierInsertBatcher.insert(getSoldier("Roger")).map(Soldier::getName),
+                        soldierInsertBatcher.insert(getSoldier("Tancrède")).map(Soldier::getName),
+                        soldierInsertBatcher.insert(getSoldier("Roger")).map(Soldier::getName)
+                                .onErrorReturn(DuplicateKeyException.class, "duplicate"))
+                .collectList();
+
+        StepVerifier.create(inserts)
+                .assertNext(names -> assertThat(names).containsExactlyInAnyOrder("Roger", "Tancrède", "duplicate"))
+                .verifyComplete();
+
+        Mockito.verify(soldierRepository).insertUnordered(anyList());
+        var batchSizes = meterRegistry.get("chivalry.soldiers.insert.batch.size").summary();
+        assertThat(batchSizes.count()).isEqualTo(1);
+        assertThat(batchSizes.max()).isEqualTo(3);
+        assertThat(meterRegistry.get("chivalry.soldiers.insert.pending").gauge().value()).isZero();
+    }
+
+    @Test
+    void shouldRejectInsertsBeyondTheBound() {
+        // Inserts are never acknowledged, so that they keep waiting
+        Mockito.when(soldierRepository.insertUnordered(anyList())).thenReturn(Mono.never());
+
+        Flux.range(0, 3).subscribe(i -> soldierInsertBatcher.insert(getSoldier("Roger " + i)).subscribe());
+
+        StepVerifier.create(soldierInsertBatcher.insert(getSoldier("Tancrède")))
+                .expectError(BatchQueueFullException.class)
+                .verify();
+    }
+
+    @Test
+    void shouldFailEveryInsertOfAFailedBatch() {
+        Mockito.when(soldierRepository.insertUnordered(anyList())).thenReturn(Mono.error(new IllegalStateException("Connection lost")));
+
+        var inserts = Flux.merge(
+                soldierInsertBatcher.insert(getSoldier("Roger")).onErrorReturn(IllegalStateException.class, new Soldier()),
+                soldierInsertBatcher.insert(getSoldier("Tancrède")).onErrorReturn(IllegalStateException.class, new Soldier()));
+
+        StepVerifier.create(inserts.map(soldier -> soldier.getName() == null))
+                .expectNext(true, true)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldKeepWritingAfterAFailedBatch() {
+        Mockito.when(soldierRepository.insertUnordered(anyList()))
+                .thenReturn(Mono.error(new IllegalStateException("Connection lost")))
+                .thenAnswer(invocation -> Mono.just(new BulkInsertResult(invocation.getArgument(0), List.of())));
+
+        StepVerifier.create(soldierInsertBatcher.insert(getSoldier("Roger")))
+                .expectError(IllegalStateException.class)
+                .verify();
+        StepVerifier.create(soldierInsertBatcher.insert(getSoldier("Tancrède")).map(Soldier::getName))
+                .expectNext("Tancrède")
+                .verifyComplete();
+        assertThat(meterRegistry.get("chivalry.soldiers.insert.pending").gauge().value()).isZero();
+    }
+}
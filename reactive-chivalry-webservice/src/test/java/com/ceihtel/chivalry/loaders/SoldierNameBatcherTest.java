@@ -0,0 +1,137 @@
+package com.ceihtel.chivalry.loaders;
+
+import com.ceihtel.chivalry.entities.Soldier;
+import com.ceihtel.chivalry.repositories.SoldierRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+
+class SoldierNameBatcherTest {
+    private final SoldierRepository soldierRepository = Mockito.mock(SoldierRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private SoldierNameBatcher soldierNameBatcher;
+
+    @BeforeEach
+    void setup() {
+        soldierNameBatcher = new SoldierNameBatcher(soldierRepository, Duration.ofMillis(50), 10, 100, 2, Duration.ofMillis(500));
+        soldierNameBatcher.bindTo(meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        soldierNameBatcher.close();
+    }
+
+    private static Soldier getSoldier(String name, String weapon) {
+        var soldier = new Soldier();
+        soldier.setId(UUID.randomUUID().toString());
+        soldier.setName(name);
+        soldier.setWeapon(weapon);
+        return soldier;
+    }
+
+    @Test
+    void shouldCoalesceConcurrentLookups() {
+        Mockito.when(soldierRepository.findByNameIn(anyCollection())).thenReturn(
+                Flux.just(getSoldier("Roger", "Crossbow"), getSoldier("Tancrède", "Polearm")));
+
+        var lookups = Flux.merge(
+                        soldierNameBatcher.load("Roger").map(Soldier::getWeapon),
+                        soldierNameBatcher.load("Tancrède").map(Soldier::getWeapon),
+                        soldierNameBatcher.load("Géraud").map(Soldier::getWeapon).defaultIfEmpty("missing"))
+                .collectList();
+
+        StepVerifier.create(lookups)
+                .assertNext(weapons -> assertThat(weapons).containsExactlyInAnyOrder("Crossbow", "Polearm", "missing"))
+                .verifyComplete();
+
+        Mockito.verify(soldierRepository).findByNameIn(Set.of("Roger", "Tancrède", "Géraud"));
+        Mockito.verifyNoMoreInteractions(soldierRepository);
+        assertThat(meterRegistry.get("chivalry.soldiers.lookup.batch.size").summary().max()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldLookUpSingleNameDirectly() {
+        Mockito.when(soldierRepository.findByName("Roger")).thenReturn(Mono.just(getSoldier("Roger", "Crossbow")));
+
+        StepVerifier.create(soldierNameBatcher.load("Roger"))
+                .assertNext(soldier -> assertThat(soldier.getWeapon()).isEqualTo("Crossbow"))
+                .verifyComplete();
+
+        Mockito.verify(soldierRepository).findByName("Roger");
+        Mockito.verifyNoMoreInteractions(soldierRepository);
+    }
+
+    @Test
+    void shouldPropagateErrorsToEveryCaller() {
+        Mockito.when(soldierRepository.findByNameIn(anyCollection())).thenReturn(Flux.error(new IllegalStateException("Mongo is down")));
+
+        var lookups = Flux.merge(
+                soldierNameBatcher.load("Roger").map(Soldier::getWeapon).onErrorReturn("failed"),
+                soldierNameBatcher.load("Tancrède").map(Soldier::getWeapon).onErrorReturn("failed"));
+
+        StepVerifier.create(lookups)
+                .expectNext("failed", "failed")
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldKeepServingAfterAFailedBatch() {
+        Mockito.when(soldierRepository.findByName("Roger"))
+                .thenThrow(new IllegalStateException("Mongo is down"))
+                .thenReturn(Mono.just(getSoldier("Roger", "Crossbow")));
+
+        StepVerifier.create(soldierNameBatcher.load("Roger"))
+                .expectError(IllegalStateException.class)
+                .verify();
+        StepVerifier.create(soldierNameBatcher.load("Roger"))
+                .assertNext(soldier -> assertThat(soldier.getWeapon()).isEqualTo("Crossbow"))
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldFailLookupsNeverAnswered() {
+        Mockito.when(soldierRepository.findByName("Roger")).thenReturn(Mono.never());
+
+        StepVerifier.create(soldierNameBatcher.load("Roger"))
+                .expectError(TimeoutException.class)
+                .verify();
+    }
+
+    @Test
+    void shouldRejectLookupsBeyondTheBoundAndServeTheQueuedOnes() throws Exception {
+        var roger = Sinks.<Soldier>one();
+        Mockito.when(soldierRepository.findByName("Roger")).thenReturn(roger.asMono());
+        Mockito.when(soldierRepository.findByName("Tancrède")).thenReturn(Mono.just(getSoldier("Tancrède", "Polearm")));
+
+        // One name per query and one query at a time, so that lookups pile up behind the first
+        try (var batcher = new SoldierNameBatcher(soldierRepository, Duration.ofMillis(1), 1, 3, 1, Duration.ofSeconds(5))) {
+            var weapons = Flux.merge(batcher.load("Roger"), batcher.load("Tancrède"), batcher.load("Tancrède"))
+                    .map(Soldier::getWeapon)
+                    .collectList()
+                    .toFuture();
+
+            StepVerifier.create(batcher.load("Géraud"))
+                    .expectError(BatchQueueFullException.class)
+                    .verify();
+
+            roger.tryEmitValue(getSoldier("Roger", "Crossbow"));
+            assertThat(weapons.get(1, TimeUnit.SECONDS)).containsExactlyInAnyOrder("Crossbow", "Polearm", "Polearm");
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.ceihtel.chivalry.repositories;
+
+import com.ceihtel.chivalry.entities.Army;
+import com.ceihtel.chivalry.entities.Soldier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Joins armies with their soldiers, as enlisted and discharged by multi-document updates
+ */
+@DataMongoTest
+@Testcontainers(disabledWithoutDocker = true)
+class ArmyRepositoryTest {
+    @Container
+    private static final MongoDBContainer MONGO = new MongoDBContainer("mongo:6.0");
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", MONGO::getReplicaSetUrl);
+    }
+
+    @Autowired
+    private ArmyRepository armyRepository;
+
+    @Autowired
+    private SoldierRepository soldierRepository;
+
+    @BeforeEach
+    void setup() {
+        armyRepository.deleteAll().then(soldierRepository.deleteAll()).block();
+    }
+
+    private Army raise(String name) {
+        var army = new Army();
+        army.setName(name);
+        return armyRepository.insert(army).block();
+    }
+
+    private void enlist(String... names) {
+        for (var name : names) {
+            var soldier = new Soldier();
+            soldier.setName(name);
+            soldier.setWeapon("Sword");
+            soldierRepository.insert(soldier).block();
+        }
+    }
+
+    private List<String> members(Army army) {
+        return armyRepository.findWithSoldiers(army.getId()).block().getSoldiers().stream()
+                .map(Soldier::getName)
+                .toList();
+    }
+
+    @Test
+    void shouldJoinArmiesWithTheirSoldiers() {
+        var toulouse = raise("Host of Toulouse");
+        var flanders = raise("Host of Flanders");
+        enlist("Raymond", "Adhémar", "Robert", "Roger");
+
+        assertThat(soldierRepository.enlist(toulouse.getId(), List.of("Raymond", "Adhémar", "Roger")).block()).isEqualTo(3);
+        assertThat(soldierRepository.enlist(flanders.getId(), List.of("Robert", "Roger")).block()).isEqualTo(2);
+        // Already there, nothing changes
+        assertThat(soldierRepository.enlist(flanders.getId(), List.of("Robert")).block()).isZero();
+
+        assertThat(members(toulouse)).containsExactlyInAnyOrder("Raymond", "Adhémar");
+        assertThat(members(flanders)).containsExactlyInAnyOrder("Robert", "Roger");
+        assertThat(soldierRepository.findByName("Roger").block().getVersion()).isEqualTo(2);
+
+        // Soldiers of other armies are not discharged
+        assertThat(soldierRepository.discharge(toulouse.getId(), List.of("Raymond", "Robert")).block()).isEqualTo(1);
+        assertThat(members(toulouse)).containsExactly("Adhémar");
+
+        assertThat(soldierRepository.discharge(flanders.getId(), null).block()).isEqualTo(2);
+        assertThat(members(flanders)).isEmpty();
+        assertThat(soldierRepository.findByName("Robert").block().getArmyId()).isNull();
+    }
+
+    @Test
+    void shouldNotFindUnknownArmies() {
+        assertThat(armyRepository.findWithSoldiers("nowhere").blockOptional()).isEmpty();
+        assertThat(armyRepository.findWithSoldiers("0123456789abcdef01234567").blockOptional()).isEmpty();
+    }
+}
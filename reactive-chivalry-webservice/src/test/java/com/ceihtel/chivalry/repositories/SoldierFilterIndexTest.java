@@ -0,0 +1,100 @@
+package com.ceihtel.chivalry.repositories;
+
+import com.ceihtel.chivalry.entities.Soldier;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks with {@code explain} that every supported filter is served from an index
+ */
+@DataMongoTest
+@Testcontainers(disabledWithoutDocker = true)
+class SoldierFilterIndexTest {
+    @Container
+    private static final MongoDBContainer MONGO = new MongoDBContainer("mongo:6.0");
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", MONGO::getReplicaSetUrl);
+    }
+
+    @Autowired
+    private ReactiveMongoOperations mongoOperations;
+
+    @BeforeEach
+    void setup() {
+        // Index creation on startup is asynchronous, make sure every index is there before planning queries
+        var indexResolver = new MongoPersistentEntityIndexResolver(mongoOperations.getConverter().getMappingContext());
+        Flux.fromIterable(indexResolver.resolveIndexFor(Soldier.class))
+                .concatMap(index -> mongoOperations.indexOps(Soldier.class).ensureIndex(index))
+                .then(new SoldierIndexes(mongoOperations).ensure())
+                .block();
+
+        // Give the planner some documents, on an empty collection any plan would do
+        var soldiers = new ArrayList<Soldier>();
+        for (int i = 0; i < 200; i++) {
+            var soldier = new Soldier();
+            soldier.setName("Soldier " + i);
+            soldier.setWeapon(i % 2 == 0 ? "Crossbow" : "Polearm");
+            soldiers.add(soldier);
+        }
+        mongoOperations.remove(Soldier.class).all()
+                .thenMany(mongoOperations.insertAll(soldiers))
+                .blockLast();
+    }
+
+    @ParameterizedTest
+    @CsvSource(value = {"crossbow,", ",soldier 1", "CROSSBOW,Soldier 1"})
+    void shouldUseIndex(String weapon, String namePrefix) {
+        var query = SoldierRepositoryCustomImpl.filter(weapon, namePrefix);
+        var find = new Document("find", mongoOperations.getCollectionName(Soldier.class))
+                .append("filter", query.getQueryObject())
+                .append("sort", query.getSortObject())
+                .append("collation", query.getCollation().orElseThrow().toDocument());
+
+        var explain = mongoOperations.executeCommand(new Document("explain", find).append("verbosity", "queryPlanner"))
+                .block();
+
+        var winningPlan = explain.get("queryPlanner", Document.class).get("winningPlan", Document.class);
+        var stages = stages(winningPlan, new ArrayList<>());
+        assertThat(stages).contains("IXSCAN").doesNotContain("COLLSCAN", "SORT");
+    }
+
+    @ParameterizedTest
+    @CsvSource(value = {"crossbow,,100", ",soldier 1,111", "CROSSBOW,Soldier 1,55"})
+    void shouldFilterCaseInsensitively(String weapon, String namePrefix, long expected) {
+        var count = mongoOperations.find(SoldierRepositoryCustomImpl.filter(weapon, namePrefix), Soldier.class)
+                .count()
+                .block();
+
+        assertThat(count).isEqualTo(expected);
+    }
+
+    private static List<String> stages(Document plan, List<String> stages) {
+        stages.add(plan.getString("stage"));
+        if (plan.containsKey("inputStage")) {
+            stages(plan.get("inputStage", Document.class), stages);
+        }
+        if (plan.containsKey("inputStages")) {
+            plan.getList("inputStages", Document.class).forEach(stage -> stages(stage, stages));
+        }
+        return stages;
+    }
+}
@@ -0,0 +1,62 @@
+package com.ceihtel.chivalry.repositories;
+
+import com.ceihtel.chivalry.entities.Soldier;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Replaces the non-sparse unique name index of earlier versions
+ */
+@DataMongoTest
+@Testcontainers(disabledWithoutDocker = true)
+class SoldierIndexesTest {
+    @Container
+    private static final MongoDBContainer MONGO = new MongoDBContainer("mongo:6.0");
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", MONGO::getReplicaSetUrl);
+    }
+
+    @Autowired
+    private ReactiveMongoOperations mongoOperations;
+
+    @Test
+    void shouldReplaceNonSparseNameIndex() {
+        var indexOps = mongoOperations.indexOps(Soldier.class);
+        mongoOperations.remove(Soldier.class).all()
+                .then(indexOps.dropAllIndexes())
+                .then(indexOps.ensureIndex(new Index().on("name", Sort.Direction.ASC).named("name").unique()))
+                .then(new SoldierIndexes(mongoOperations).ensure())
+                .block();
+
+        var nameIndex = indexOps.getIndexInfo()
+                .filter(index -> index.getName().equals("name"))
+                .single()
+                .block();
+        assertThat(nameIndex).extracting(IndexInfo::isUnique, IndexInfo::isSparse).containsExactly(true, true);
+
+        // Nameless soldiers do not collide, named ones still do
+        mongoOperations.insert(new Soldier()).then(mongoOperations.insert(new Soldier())).block();
+        var roger = new Soldier();
+        roger.setName("Roger");
+        mongoOperations.insert(roger).block();
+        var otherRoger = new Soldier();
+        otherRoger.setName("Roger");
+        assertThatThrownBy(() -> mongoOperations.insert(otherRoger).block()).isInstanceOf(DuplicateKeyException.class);
+    }
+}
@@ -0,0 +1,199 @@
+package com.ceihtel.chivalry.repositories.memory;
+
+import com.ceihtel.chivalry.entities.Soldier;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemorySoldierRepositoryTest {
+    private final InMemorySoldierRepository soldierRepository = new InMemorySoldierRepository();
+
+    private static Soldier getSoldier(String name, String weapon) {
+        var soldier = new Soldier();
+        soldier.setName(name);
+        soldier.setWeapon(weapon);
+        return soldier;
+    }
+
+    @Test
+    void shouldInsertAndFindByName() {
+        StepVerifier.create(soldierRepository.insert(getSoldier("Roger", "Crossbow")))
+                .assertNext(soldier -> assertThat(soldier.getId()).isNotNull())
+                .verifyComplete();
+
+        StepVerifier.create(soldierRepository.findByName("Roger"))
+                .assertNext(soldier -> assertThat(soldier.getWeapon()).isEqualTo("Crossbow"))
+                .verifyComplete();
+        StepVerifier.create(soldierRepository.findByName("Tancrède"))
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldRejectDuplicateName() {
+        soldierRepository.insert(getSoldier("Roger", "Crossbow")).block();
+
+        StepVerifier.create(soldierRepository.insert(getSoldier("Roger", "Polearm")))
+                .verifyError(DuplicateKeyException.class);
+        StepVerifier.create(soldierRepository.count())
+                .expectNext(1L)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldLetOnlyOneConcurrentInsertWin() {
+        var inserted = Flux.range(0, 64)
+                .parallel()
+                .runOn(Schedulers.parallel())
+                .flatMap(i -> soldierRepository.insert(getSoldier("Roger", "Weapon " + i))
+                        .map(__ -> 1)
+                        .onErrorReturn(DuplicateKeyException.class, 0))
+                .sequential()
+                .reduce(0, Integer::sum);
+
+        StepVerifier.create(inserted)
+                .expectNext(1)
+                .verifyComplete();
+        StepVerifier.create(soldierRepository.count())
+                .expectNext(1L)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldKeepNamelessSoldiersOutOfTheNameIndex() {
+        soldierRepository.save(new Soldier()).block();
+        soldierRepository.save(new Soldier()).block();
+
+        StepVerifier.create(soldierRepository.count())
+                .expectNext(2L)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldFreeNameOnRenameAndDelete() {
+        var roger = soldierRepository.insert(getSoldier("Roger", "Crossbow")).block();
+        roger.setName("Géraud");
+        soldierRepository.save(roger).block();
+
+        StepVerifier.create(soldierRepository.findByName("Roger"))
+                .verifyComplete();
+        StepVerifier.create(soldierRepository.insert(getSoldier("Roger", "Polearm")))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        soldierRepository.delete(roger).block();
+        StepVerifier.create(soldierRepository.insert(getSoldier("Géraud", "Polearm")))
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldRejectOutdatedVersions() {
+        var roger = soldierRepository.insert(getSoldier("Roger", "Crossbow")).block();
+        var outdated = soldierRepository.findByName("Roger").block();
+        roger.setWeapon("Polearm");
+        soldierRepository.save(roger).block();
+
+        assertThat(roger.getVersion()).isEqualTo(1L);
+        outdated.setWeapon("Longbow");
+        StepVerifier.create(soldierRepository.save(outdated))
+                .verifyError(OptimisticLockingFailureException.class);
+        StepVerifier.create(soldierRepository.delete(outdated))
+                .verifyError(OptimisticLockingFailureException.class);
+        StepVerifier.create(soldierRepository.updateIfVersion("Roger", roger.getId(), 0L, "Longbow"))
+                .verifyComplete();
+        StepVerifier.create(soldierRepository.updateIfVersion("Roger", roger.getId(), 1L, "Longbow"))
+                .assertNext(soldier -> assertThat(soldier.getVersion()).isEqualTo(2L))
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldReportDuplicatesOfUnorderedInsert() {
+        soldierRepository.insert(getSoldier("Roger", "Crossbow")).block();
+        var tancrede = getSoldier("Tancrède", "Polearm");
+        var roger = getSoldier("Roger", "Shortsword");
+
+        StepVerifier.create(soldierRepository.insertUnordered(List.of(tancrede, roger)))
+                .assertNext(result -> {
+                    assertThat(result.inserted()).containsExactly(tancrede);
+                    assertThat(result.duplicates()).containsExactly(roger);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldPageInIdentifierOrder() {
+        var soldiers = soldierRepository.insert(List.of(
+                        getSoldier("Roger", "Crossbow"),
+                        getSoldier("Tancrède", "Polearm"),
+                        getSoldier("Géraud", "Shortsword")))
+                .collectList()
+                .block();
+
+        StepVerifier.create(soldierRepository.findPage(soldiers.get(0).getId(), 10).map(Soldier::getName))
+                .expectNext("Tancrède", "Géraud")
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldUpsertByName() {
+        StepVerifier.create(soldierRepository.upsertByName("Roger", "Crossbow"))
+                .assertNext(soldier -> assertThat(soldier.getWeapon()).isEqualTo("Crossbow"))
+                .verifyComplete();
+        StepVerifier.create(soldierRepository.upsertByName("Roger", "Polearm"))
+                .assertNext(soldier -> assertThat(soldier.getWeapon()).isEqualTo("Polearm"))
+                .verifyComplete();
+        StepVerifier.create(soldierRepository.count())
+                .expectNext(1L)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldDeleteByWeapon() {
+        soldierRepository.insert(List.of(
+                        getSoldier("Roger", "Crossbow"),
+                        getSoldier("Tancrède", "Polearm"),
+                        getSoldier("Géraud", "Crossbow")))
+                .blockLast();
+
+        StepVerifier.create(soldierRepository.deleteByWeapon("Crossbow"))
+                .expectNext(2L)
+                .verifyComplete();
+        StepVerifier.create(soldierRepository.findAll().map(Soldier::getName))
+                .expectNext("Tancrède")
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldEnlistAndDischargeByName() {
+        soldierRepository.insert(getSoldier("Raymond", "Sword")).block();
+        soldierRepository.insert(getSoldier("Robert", "Mace")).block();
+
+        StepVerifier.create(soldierRepository.enlist("toulouse", List.of("Raymond", "Robert", "Géraud")))
+                .expectNext(2L)
+                .verifyComplete();
+        StepVerifier.create(soldierRepository.enlist("flanders", List.of("Robert")))
+                .expectNext(1L)
+                .verifyComplete();
+
+        // Robert serves in Flanders now
+        StepVerifier.create(soldierRepository.discharge("toulouse", null))
+                .expectNext(1L)
+                .verifyComplete();
+        StepVerifier.create(soldierRepository.findByName("Robert"))
+                .assertNext(soldier -> {
+                    assertThat(soldier.getArmyId()).isEqualTo("flanders");
+                    assertThat(soldier.getVersion()).isEqualTo(2);
+                })
+                .verifyComplete();
+        StepVerifier.create(soldierRepository.findByName("Raymond").map(soldier -> soldier.getArmyId() == null))
+                .expectNext(true)
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,84 @@
+package com.ceihtel.chivalry.rsocket;
+
+import com.ceihtel.chivalry.entities.Soldier;
+import com.ceihtel.chivalry.exceptions.SoldierNotFoundException;
+import com.ceihtel.chivalry.repositories.SoldierRepository;
+import com.ceihtel.chivalry.requests.CreateSoldierDTO;
+import com.ceihtel.chivalry.responses.SoldierCreationDTO;
+import io.rsocket.exceptions.ApplicationErrorException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.rsocket.context.LocalRSocketServerPort;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {"spring.rsocket.server.port=0", "server.port=0"})
+@ActiveProfiles("in-memory")
+class SoldierRSocketControllerTest {
+    @LocalRSocketServerPort
+    private int port;
+
+    @Autowired
+    private RSocketRequester.Builder requesterBuilder;
+
+    @Autowired
+    private SoldierRepository soldierRepository;
+
+    private RSocketRequester requester;
+
+    @BeforeEach
+    void connect() {
+        requester = requesterBuilder.tcp("localhost", port);
+    }
+
+    @AfterEach
+    void disconnect() {
+        requester.dispose();
+        soldierRepository.deleteAll().block();
+    }
+
+    private static CreateSoldierDTO getCreateSoldierDTO(String name, String weapon) {
+        var createSoldierDTO = new CreateSoldierDTO();
+        createSoldierDTO.setName(name);
+        createSoldierDTO.setWeapon(weapon);
+        return createSoldierDTO;
+    }
+
+    @Test
+    void shouldCreateStreamAndGetSoldiers() {
+        var created = requester.route("soldiers.bulk")
+                .data(Flux.just(getCreateSoldierDTO("Roger", "Crossbow"), getCreateSoldierDTO("Tancrède", "Polearm"), getCreateSoldierDTO("", null)))
+                .retrieveFlux(SoldierCreationDTO.class)
+                .map(SoldierCreationDTO::getStatus)
+                .collectList()
+                .block();
+        assertThat(created).containsExactly(SoldierCreationDTO.Status.CREATED, SoldierCreationDTO.Status.CREATED, SoldierCreationDTO.Status.INVALID);
+
+        // A requester asking for one soldier at a time is sent one soldier at a time
+        StepVerifier.create(requester.route("soldiers.all").retrieveFlux(Soldier.class).map(Soldier::getName), 1)
+                .expectNextCount(1)
+                .thenRequest(1)
+                .expectNextCount(1)
+                .verifyComplete();
+
+        var roger = requester.route("soldiers.get.{name}", "Roger").retrieveMono(Soldier.class).block();
+        assertThat(roger).isNotNull();
+        assertThat(roger.getWeapon()).isEqualTo("Crossbow");
+    }
+
+    @Test
+    void shouldReportMissingSoldiers() {
+        StepVerifier.create(requester.route("soldiers.get.{name}", "Géraud").retrieveMono(Soldier.class))
+                .expectErrorSatisfies(e -> assertThat(e)
+                        .isInstanceOf(ApplicationErrorException.class)
+                        .hasMessage(SoldierNotFoundException.message("Géraud")))
+                .verify();
+    }
+}
@@ -0,0 +1,116 @@
+package com.ceihtel.chivalry.services;
+
+import com.ceihtel.chivalry.config.SoldierProperties;
+import com.ceihtel.chivalry.entities.Soldier;
+import com.ceihtel.chivalry.exceptions.InvalidArchiveException;
+import com.ceihtel.chivalry.repositories.memory.InMemorySoldierRepository;
+import com.ceihtel.chivalry.responses.SoldierImportDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Exports an army and imports it into another one, the way an environment is cloned
+ */
+class SoldierArchiveServiceTest {
+    private final InMemorySoldierRepository source = new InMemorySoldierRepository();
+    private final InMemorySoldierRepository target = new InMemorySoldierRepository();
+
+    private static SoldierArchiveService getSoldierArchiveService(InMemorySoldierRepository soldierRepository) {
+        var soldierProperties = new SoldierProperties();
+        // Small batches, so that exports and imports span several of them
+        soldierProperties.getArchive().setBatchSize(7);
+        return new SoldierArchiveService(soldierRepository, Jackson2ObjectMapperBuilder.json().build(), soldierProperties);
+    }
+
+    private void enlist(int count) {
+        for (int i = 0; i < count; i++) {
+            var soldier = new Soldier();
+            soldier.setName("Roger " + i);
+            soldier.setWeapon(i % 2 == 0 ? "Crossbow" : "Polearm");
+            source.insert(soldier).block();
+        }
+    }
+
+    private static byte[] export(SoldierArchiveService soldierArchiveService, String afterId) {
+        return DataBufferUtils.join(soldierArchiveService.export(afterId, DefaultDataBufferFactory.sharedInstance))
+                .map(buffer -> {
+                    var bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    DataBufferUtils.release(buffer);
+                    return bytes;
+                })
+                .block();
+    }
+
+    private static Flux<DataBuffer> chunks(byte[] bytes, int chunkSize) {
+        return Flux.range(0, (bytes.length + chunkSize - 1) / chunkSize)
+                .map(i -> DefaultDataBufferFactory.sharedInstance.wrap(Arrays.copyOfRange(bytes, i * chunkSize, Math.min(bytes.length, (i + 1) * chunkSize))));
+    }
+
+    private static String[] lines(byte[] archive) throws IOException {
+        try (var gzip = new GZIPInputStream(new ByteArrayInputStream(archive))) {
+            return new String(gzip.readAllBytes(), StandardCharsets.UTF_8).split("\n");
+        }
+    }
+
+    @Test
+    void shouldCloneTheArmy() throws IOException {
+        enlist(50);
+        var archive = export(getSoldierArchiveService(source), null);
+        assertThat(lines(archive)).hasSize(50);
+
+        StepVerifier.create(getSoldierArchiveService(target).importAll(chunks(archive, 100)))
+                .expectNext(new SoldierImportDTO(50, 0))
+                .verifyComplete();
+        assertThat(target.findAll().collectList().block())
+                .containsExactlyInAnyOrderElementsOf(source.findAll().collectList().block());
+
+        // Running the import again changes nothing
+        StepVerifier.create(getSoldierArchiveService(target).importAll(chunks(archive, 100)))
+                .expectNext(new SoldierImportDTO(0, 50))
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldResumeAfterTheLastExportedSoldier() throws IOException {
+        enlist(20);
+        var soldierArchiveService = getSoldierArchiveService(source);
+        var ids = source.findPage(null, 20).map(Soldier::getId).collectList().block();
+
+        var rest = lines(export(soldierArchiveService, ids.get(11)));
+        assertThat(rest).hasSize(8);
+        assertThat(rest[0]).contains(ids.get(12));
+    }
+
+    @Test
+    void shouldRejectResumingAfterWhatIsNotAnIdentifier() {
+        var soldierArchiveService = getSoldierArchiveService(source);
+
+        assertThatThrownBy(() -> soldierArchiveService.export("Roger", DefaultDataBufferFactory.sharedInstance))
+                .isInstanceOf(InvalidArchiveException.class)
+                .hasMessage(String.format(SoldierArchiveService.INVALID_AFTER_ID, "Roger"));
+    }
+
+    @Test
+    void shouldRejectWhatIsNotAnArchive() {
+        var notCompressed = "{\"name\":\"Roger\"}\n".getBytes(StandardCharsets.UTF_8);
+
+        StepVerifier.create(getSoldierArchiveService(target).importAll(chunks(notCompressed, 100)))
+                .expectError(InvalidArchiveException.class)
+                .verify();
+    }
+}
@@ -0,0 +1,87 @@
+package com.ceihtel.chivalry.stats;
+
+import com.ceihtel.chivalry.config.SoldierProperties;
+import com.ceihtel.chivalry.entities.Soldier;
+import com.ceihtel.chivalry.repositories.WeaponCount;
+import com.ceihtel.chivalry.repositories.memory.InMemorySoldierRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks materialized counters against the aggregation they stand for, over the same army
+ */
+class WeaponStatisticsTest {
+    private final InMemorySoldierRepository soldierRepository = new InMemorySoldierRepository();
+    private final WeaponStatistics aggregated = new WeaponStatistics(soldierRepository, new SoldierProperties());
+    private final WeaponStatistics materialized = new WeaponStatistics(soldierRepository, materializedProperties(Duration.ofHours(1)));
+
+    private static SoldierProperties materializedProperties(Duration reconcileInterval) {
+        var soldierProperties = new SoldierProperties();
+        soldierProperties.getStats().setMaterialized(true);
+        soldierProperties.getStats().setReconcileInterval(reconcileInterval);
+        return soldierProperties;
+    }
+
+    private Soldier create(WeaponStatistics weaponStatistics, String name, String weapon) {
+        var soldier = new Soldier();
+        soldier.setName(name);
+        soldier.setWeapon(weapon);
+        soldierRepository.insert(soldier).block();
+        weaponStatistics.added(weapon);
+        return soldier;
+    }
+
+    private static List<WeaponCount> counts(WeaponStatistics weaponStatistics) {
+        return weaponStatistics.getCounts().collectList().block();
+    }
+
+    @Test
+    void shouldFollowCreationsAndDeletions() {
+        create(materialized, "Roger", "Crossbow");
+        // First read loads the counters from the aggregation
+        assertThat(counts(materialized)).containsExactly(new WeaponCount("Crossbow", 1));
+
+        create(materialized, "Tancrède", "Polearm");
+        create(materialized, "Géraud", "Polearm");
+        create(materialized, null, null);
+        var baudouin = create(materialized, "Baudouin", "Crossbow");
+        soldierRepository.delete(baudouin).block();
+        materialized.removed("Crossbow", 1);
+        materialized.removed("Polearm", soldierRepository.deleteByWeapon("Polearm").block());
+
+        assertThat(counts(materialized))
+                .containsExactly(new WeaponCount(null, 1), new WeaponCount("Crossbow", 1))
+                .isEqualTo(counts(aggregated));
+    }
+
+    @Test
+    void shouldReloadAfterUnknownWrites() {
+        create(materialized, "Roger", "Crossbow");
+        counts(materialized);
+
+        soldierRepository.upsertByName("Roger", "Polearm").block();
+        materialized.invalidate();
+
+        assertThat(counts(materialized))
+                .containsExactly(new WeaponCount("Polearm", 1))
+                .isEqualTo(counts(aggregated));
+    }
+
+    @Test
+    void shouldCorrectDriftWhenReconciling() {
+        var reconciled = new WeaponStatistics(soldierRepository, materializedProperties(Duration.ZERO));
+        create(reconciled, "Roger", "Crossbow");
+        counts(reconciled);
+
+        // Written elsewhere, never reported
+        create(aggregated, "Tancrède", "Polearm");
+
+        assertThat(counts(reconciled))
+                .containsExactly(new WeaponCount("Crossbow", 1), new WeaponCount("Polearm", 1))
+                .isEqualTo(counts(aggregated));
+    }
+}
@@ -0,0 +1,86 @@
+package com.ceihtel.chivalry.suggest;
+
+import com.ceihtel.chivalry.config.SoldierProperties;
+import com.ceihtel.chivalry.entities.Soldier;
+import com.ceihtel.chivalry.events.SoldierEvent;
+import com.ceihtel.chivalry.events.SoldierEventBus;
+import com.ceihtel.chivalry.repositories.memory.InMemorySoldierRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SoldierNameIndexTest {
+    private final InMemorySoldierRepository soldierRepository = new InMemorySoldierRepository();
+    private final SoldierProperties soldierProperties = new SoldierProperties();
+    private final SoldierNameIndex soldierNameIndex = new SoldierNameIndex(soldierRepository,
+            new SoldierEventBus(soldierRepository, soldierProperties), soldierProperties);
+
+    private Soldier create(String name) {
+        var soldier = new Soldier();
+        soldier.setName(name);
+        soldier.setWeapon("Sword");
+        return soldierRepository.insert(soldier).block();
+    }
+
+    @BeforeEach
+    void setup() {
+        List.of("Roger", "roger II", "Robert", "Raymond", "Godefroy", "ROLAND").forEach(this::create);
+        soldierNameIndex.rebuild().block();
+    }
+
+    @Test
+    void shouldSuggestNamesByPrefixRegardlessOfCase() {
+        assertThat(soldierNameIndex.suggest("ro", 10)).containsExactly("Robert", "Roger", "roger II", "ROLAND");
+        assertThat(soldierNameIndex.suggest("ROG", 10)).containsExactly("Roger", "roger II");
+        assertThat(soldierNameIndex.suggest("roger", 1)).containsExactly("Roger");
+        assertThat(soldierNameIndex.suggest("", 2)).containsExactly("Godefroy", "Raymond");
+        assertThat(soldierNameIndex.suggest("Tancrède", 10)).isEmpty();
+    }
+
+    @Test
+    void shouldMergeChangesWithTheSortedNames() {
+        soldierNameIndex.added("rob");
+        soldierNameIndex.added("Roger");
+        soldierNameIndex.removed("Robert");
+        soldierNameIndex.removed("roger II");
+        soldierNameIndex.added("Roger III");
+
+        var expected = List.of("rob", "Roger", "Roger III", "ROLAND");
+        assertThat(soldierNameIndex.suggest("Ro", 10)).isEqualTo(expected);
+
+        soldierNameIndex.compact();
+        assertThat(soldierNameIndex.suggest("Ro", 10)).isEqualTo(expected);
+
+        // Names deleted then created again are back
+        soldierNameIndex.removed("Roger");
+        soldierNameIndex.added("Roger");
+        assertThat(soldierNameIndex.suggest("Ro", 10)).isEqualTo(expected);
+    }
+
+    @Test
+    void shouldFollowEvents() {
+        var tancrede = create("Tancrède");
+        soldierNameIndex.apply(SoldierEvent.created(tancrede));
+        assertThat(soldierNameIndex.suggest("t", 10)).containsExactly("Tancrède");
+
+        var roger = soldierRepository.findByName("Roger").block();
+        soldierRepository.delete(roger).block();
+        soldierNameIndex.apply(SoldierEvent.deleted(roger.getId(), roger));
+        assertThat(soldierNameIndex.suggest("roger", 10)).containsExactly("roger II");
+    }
+
+    @Test
+    void shouldRebuildFromTheCollection() {
+        soldierNameIndex.added("Baudouin");
+        soldierRepository.deleteByWeapon("Sword").block();
+        create("Bohémond");
+        soldierNameIndex.apply(SoldierEvent.purged());
+
+        soldierNameIndex.rebuild().block();
+
+        assertThat(soldierNameIndex.suggest("", 10)).containsExactly("Bohémond");
+    }
+}
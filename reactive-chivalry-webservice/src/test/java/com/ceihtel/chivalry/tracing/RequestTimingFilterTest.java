@@ -0,0 +1,90 @@
+package com.ceihtel.chivalry.tracing;
+
+import com.ceihtel.chivalry.config.SoldierProperties;
+import com.ceihtel.chivalry.requests.CreateSoldierDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestTimingFilterTest {
+    private static RequestTimingFilter filter(Duration slowThreshold, int slowRequestsKept) {
+        var soldierProperties = new SoldierProperties();
+        soldierProperties.getTracing().setSlowThreshold(slowThreshold);
+        soldierProperties.getTracing().setSlowRequestsKept(slowRequestsKept);
+        return new RequestTimingFilter(soldierProperties);
+    }
+
+    private static void serve(RequestTimingFilter filter, MockServerHttpRequest request, Mono<Void> handler) {
+        filter.filter(MockServerWebExchange.from(request), exchange -> handler).block();
+    }
+
+    @Test
+    void shouldKeepSlowRequestsWithTheirStages() {
+        var filter = filter(Duration.ofMillis(10), 10);
+        var handler = RequestTimings.timed(RequestTimings.MAP, () -> "Roger")
+                .then(Mono.delay(Duration.ofMillis(20)).transform(RequestTimings.timed(RequestTimings.MONGO_PREFIX + "insert")))
+                .then();
+
+        serve(filter, MockServerHttpRequest.post("/soldiers").build(), handler);
+
+        assertThat(filter.getSlowRequests()).singleElement().satisfies(slowRequest -> {
+            assertThat(slowRequest.method()).isEqualTo("POST");
+            assertThat(slowRequest.path()).isEqualTo("/soldiers");
+            assertThat(slowRequest.millis()).isGreaterThanOrEqualTo(20);
+            assertThat(slowRequest.stages()).containsOnlyKeys(RequestTimings.MAP, "mongo.insert", RequestTimings.OTHER);
+            assertThat(slowRequest.stages().get("mongo.insert").millis()).isGreaterThanOrEqualTo(20);
+        });
+    }
+
+    @Test
+    void shouldLeaveFastAndLongLivedRequestsOut() {
+        var filter = filter(Duration.ofMillis(10), 10);
+        serve(filter, MockServerHttpRequest.get("/soldiers/Roger").build(), Mono.empty());
+        serve(filter, MockServerHttpRequest.get("/soldiers/events").build(), Mono.delay(Duration.ofMillis(20)).then());
+
+        assertThat(filter.getSlowRequests()).isEmpty();
+    }
+
+    @Test
+    void shouldKeepTheMostRecentSlowRequestsOnly() {
+        var filter = filter(Duration.ZERO, 2);
+        for (var name : new String[]{"Roger", "Robert", "Raymond"}) {
+            serve(filter, MockServerHttpRequest.get("/soldiers/{name}", name).build(), Mono.empty());
+        }
+
+        assertThat(filter.getSlowRequests()).extracting(SlowRequest::path)
+                .containsExactly("/soldiers/Raymond", "/soldiers/Robert");
+
+        filter.clearSlowRequests();
+        assertThat(filter.getSlowRequests()).isEmpty();
+    }
+
+    @Test
+    void shouldTimeReceivingAndDecodingBodies() {
+        var timings = new RequestTimings();
+        var body = DefaultDataBufferFactory.sharedInstance.wrap("{\"name\":\"Roger\",\"weapon\":\"Crossbow\"}".getBytes(StandardCharsets.UTF_8));
+
+        var decoded = new TimedJackson2JsonDecoder(new ObjectMapper())
+                .decodeToMono(Flux.just(body), ResolvableType.forClass(CreateSoldierDTO.class), MediaType.APPLICATION_JSON, Map.of())
+                .contextWrite(Context.of(RequestTimings.class, timings))
+                .block();
+
+        assertThat(decoded).isInstanceOf(CreateSoldierDTO.class).extracting("name").isEqualTo("Roger");
+        assertThat(timings.breakdown(timings.elapsedNanos()))
+                .containsOnlyKeys(RequestTimings.RECEIVE, RequestTimings.DECODE, RequestTimings.OTHER);
+        assertThat(RequestTimings.bound()).isNull();
+    }
+}